@@ -1,10 +1,12 @@
 package com.cheng.channel;
 
+import android.animation.Animator;
 import android.graphics.PointF;
 
 class ChannelAttr {
     static final int TITLE = 0x01;
     static final int CHANNEL = 0x02;
+    static final int PLATE = 0x03;
 
     /**
      * view类型
@@ -12,7 +14,7 @@ class ChannelAttr {
     int type;
 
     /**
-     * view坐标
+     * view坐标，标题和频道为在板块容器中的坐标
      */
     PointF coordinate;
 
@@ -25,4 +27,24 @@ class ChannelAttr {
      * 频道实体
      */
     Channel channel;
+
+    /**
+     * 弹簧动画的速度，单位px/s
+     */
+    float velocityX, velocityY;
+
+    /**
+     * 是否正在进行弹簧动画
+     */
+    boolean isSpringRunning;
+
+    /**
+     * 是否正在进行属性动画
+     */
+    boolean isMoveRunning;
+
+    /**
+     * 属性动画结束的监听，每个View创建一次
+     */
+    Animator.AnimatorListener moveListener;
 }
@@ -0,0 +1,92 @@
+package com.cheng.channel;
+
+import java.util.List;
+
+/**
+ * 一次编辑过程中我的频道的最小变化集合，相对于上一次编辑完成（或初始化）时的我的频道。
+ * <p>
+ * 应用方式：从上一次的我的频道中去掉{@link #getRemoved()}以及{@link #getMoves()}中的频道，
+ * 再将{@link #getAdded()}和{@link #getMoves()}中的频道按position从小到大依次插入，即可得到当前的我的频道
+ */
+public class ChannelDelta {
+    private List<Entry> added;
+    private List<Channel> removed;
+    private List<Entry> moves;
+
+    ChannelDelta(List<Entry> added, List<Channel> removed, List<Entry> moves) {
+        this.added = added;
+        this.removed = removed;
+        this.moves = moves;
+    }
+
+    /**
+     * 新增的频道及其在当前我的频道中的位置
+     *
+     * @return
+     */
+    public List<Entry> getAdded() {
+        return added;
+    }
+
+    /**
+     * 删除的频道
+     *
+     * @return
+     */
+    public List<Channel> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * 需要移动的频道及其在当前我的频道中的位置，未移动的频道保持最长递增子序列，移动数量最少
+     *
+     * @return
+     */
+    public List<Entry> getMoves() {
+        return moves;
+    }
+
+    /**
+     * 是否没有变化
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && moves.isEmpty();
+    }
+
+    public static class Entry {
+        Channel channel;
+        int position;
+
+        Entry(Channel channel, int position) {
+            this.channel = channel;
+            this.position = position;
+        }
+
+        public Channel getChannel() {
+            return channel;
+        }
+
+        public int getPosition() {
+            return position;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "channel=" + channel +
+                    ", position=" + position +
+                    '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ChannelDelta{" +
+                "added=" + added +
+                ", removed=" + removed +
+                ", moves=" + moves +
+                '}';
+    }
+}
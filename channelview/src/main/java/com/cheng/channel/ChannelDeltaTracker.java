@@ -0,0 +1,140 @@
+package com.cheng.channel;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 在编辑过程中增量记录我的频道的增删，编辑完成时通过最长递增子序列计算最少的移动
+ */
+class ChannelDeltaTracker {
+    /**
+     * 上一次编辑完成时我的频道及其位置
+     */
+    private Map<Channel, Integer> basePositions = new IdentityHashMap<>();
+
+    private Set<Channel> added = new LinkedHashSet<>();
+
+    private Set<Channel> removed = new LinkedHashSet<>();
+
+    /**
+     * 重新设置基准，之后的变化都相对于该基准
+     *
+     * @param myChannels
+     */
+    void reset(List<Channel> myChannels) {
+        basePositions.clear();
+        added.clear();
+        removed.clear();
+        for (Channel channel : myChannels) {
+            append(channel);
+        }
+    }
+
+    /**
+     * 基准中追加频道（分页加载的我的频道）
+     *
+     * @param channel
+     */
+    void append(Channel channel) {
+        basePositions.put(channel, basePositions.size());
+    }
+
+    /**
+     * 频道加入我的频道
+     *
+     * @param channel
+     */
+    void onAdd(Channel channel) {
+        if (basePositions.containsKey(channel)) {
+            removed.remove(channel);
+        } else {
+            added.add(channel);
+        }
+    }
+
+    /**
+     * 频道从我的频道中移除
+     *
+     * @param channel
+     */
+    void onRemove(Channel channel) {
+        if (basePositions.containsKey(channel)) {
+            removed.add(channel);
+        } else {
+            added.remove(channel);
+        }
+    }
+
+    /**
+     * 计算相对于基准的最小变化
+     *
+     * @param myChannels 当前的我的频道
+     * @return
+     */
+    ChannelDelta build(List<Channel> myChannels) {
+        List<ChannelDelta.Entry> addedEntries = new ArrayList<>();
+        //基准中仍保留的频道，按当前顺序记录其基准位置
+        int size = myChannels.size();
+        int[] basePositionOf = new int[size];
+        int[] keptIndexes = new int[size];
+        int keptCount = 0;
+        for (int i = 0; i < size; i++) {
+            Channel channel = myChannels.get(i);
+            if (added.contains(channel)) {
+                addedEntries.add(new ChannelDelta.Entry(channel, i));
+            } else {
+                Integer basePosition = basePositions.get(channel);
+                if (basePosition != null) {
+                    basePositionOf[keptCount] = basePosition;
+                    keptIndexes[keptCount] = i;
+                    keptCount++;
+                }
+            }
+        }
+        boolean[] inSequence = longestIncreasingSubsequence(basePositionOf, keptCount);
+        List<ChannelDelta.Entry> moves = new ArrayList<>();
+        for (int k = 0; k < keptCount; k++) {
+            if (!inSequence[k]) {
+                int i = keptIndexes[k];
+                moves.add(new ChannelDelta.Entry(myChannels.get(i), i));
+            }
+        }
+        return new ChannelDelta(addedEntries, new ArrayList<>(removed), moves);
+    }
+
+    /**
+     * 耐心排序求最长递增子序列，O(n log n)
+     *
+     * @return 每个元素是否在最长递增子序列中
+     */
+    private static boolean[] longestIncreasingSubsequence(int[] values, int count) {
+        int[] tails = new int[count];
+        int[] previous = new int[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int low = 0, high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        boolean[] inSequence = new boolean[count];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            inSequence[i] = true;
+        }
+        return inSequence;
+    }
+}
@@ -0,0 +1,235 @@
+package com.cheng.channel;
+
+import java.util.AbstractList;
+import java.util.IdentityHashMap;
+
+/**
+ * 板块中的频道View，按位置排列，元素按引用区分。
+ * 使用按位置排序的树堆（treap）保存，每个节点记录子树大小，
+ * 按位置查找、插入、删除以及查找View的位置都是O(log n)，不会像ArrayList一样移动整个数组
+ */
+class ChannelGroup<E> extends AbstractList<E> {
+    private static final class Node<E> {
+        E value;
+        int priority;
+        int size = 1;
+        Node<E> left, right, parent;
+    }
+
+    private Node<E> root;
+
+    /**
+     * View对应的节点，用于查找View的位置
+     */
+    private final IdentityHashMap<E, Node<E>> nodes = new IdentityHashMap<>();
+
+    /**
+     * 生成节点优先级的随机数种子
+     */
+    private int seed = 0x2545F491;
+
+    /**
+     * split的结果
+     */
+    private Node<E> splitLeft, splitRight;
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public E get(int index) {
+        checkIndex(index, size());
+        return select(index).value;
+    }
+
+    @Override
+    public void add(int index, E view) {
+        checkIndex(index, size() + 1);
+        if (nodes.containsKey(view)) {
+            throw new IllegalArgumentException("The view is already in the group.");
+        }
+        Node<E> node = new Node<>();
+        node.value = view;
+        node.priority = nextPriority();
+        nodes.put(view, node);
+        split(root, index);
+        Node<E> left = splitLeft;
+        Node<E> right = splitRight;
+        root = merge(merge(left, node), right);
+        root.parent = null;
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        checkIndex(index, size());
+        Node<E> node = select(index);
+        removeNode(node);
+        return node.value;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Node<E> node = nodes.get(o);
+        if (node == null) {
+            return false;
+        }
+        removeNode(node);
+        return true;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Node<E> node = nodes.get(o);
+        return node == null ? -1 : rank(node);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return nodes.containsKey(o);
+    }
+
+    @Override
+    public void clear() {
+        root = null;
+        nodes.clear();
+        modCount++;
+    }
+
+    private void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+    }
+
+    private int nextPriority() {
+        //xorshift
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static void update(Node<?> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+    }
+
+    /**
+     * 查找指定位置的节点
+     */
+    private Node<E> select(int index) {
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * 从节点向上查找，计算节点的位置
+     */
+    private int rank(Node<E> node) {
+        int rank = size(node.left);
+        for (Node<E> n = node; n.parent != null; n = n.parent) {
+            if (n == n.parent.right) {
+                rank += size(n.parent.left) + 1;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * 删除节点，用两个子树合并后的树替换该节点，再更新上方节点的大小
+     */
+    private void removeNode(Node<E> node) {
+        nodes.remove(node.value);
+        Node<E> child = merge(node.left, node.right);
+        Node<E> parent = node.parent;
+        if (child != null) {
+            child.parent = parent;
+        }
+        if (parent == null) {
+            root = child;
+        } else if (parent.left == node) {
+            parent.left = child;
+        } else {
+            parent.right = child;
+        }
+        for (Node<E> n = parent; n != null; n = n.parent) {
+            update(n);
+        }
+        node.left = node.right = node.parent = null;
+        modCount++;
+    }
+
+    /**
+     * 合并两棵树，a中的节点都在b之前
+     */
+    private Node<E> merge(Node<E> a, Node<E> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            a.right.parent = a;
+            update(a);
+            return a;
+        } else {
+            b.left = merge(a, b.left);
+            b.left.parent = b;
+            update(b);
+            return b;
+        }
+    }
+
+    /**
+     * 将树分成前count个节点（splitLeft）和其余节点（splitRight）
+     */
+    private void split(Node<E> node, int count) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        if (size(node.left) >= count) {
+            split(node.left, count);
+            node.left = splitRight;
+            if (splitRight != null) {
+                splitRight.parent = node;
+            }
+            update(node);
+            node.parent = null;
+            splitRight = node;
+        } else {
+            split(node.right, count - size(node.left) - 1);
+            node.right = splitLeft;
+            if (splitLeft != null) {
+                splitLeft.parent = node;
+            }
+            update(node);
+            node.parent = null;
+            splitLeft = node;
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.cheng.channel;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 频道数据仓库，板块和频道归属只保存一份，可同时供多个ChannelView观察。
+ * 修改会立即生效，并在下一帧合并后以细粒度的变化事件通知观察者，而不是整个列表。
+ * 需要在主线程中使用
+ */
+public class ChannelRepository {
+    private List<String> plateNames = new ArrayList<>();
+
+    private List<List<Channel>> plates = new ArrayList<>();
+
+    private List<Observer> observers = new ArrayList<>();
+
+    /**
+     * 等待下一帧通知的变化
+     */
+    private List<Change> pendingChanges = new ArrayList<>();
+
+    /**
+     * 是否已经提交了通知的帧回调
+     */
+    private boolean isDispatchScheduled;
+
+    private Handler handler = new Handler(Looper.getMainLooper());
+
+    private Choreographer.FrameCallback dispatchFrameCallback;
+
+    private Runnable dispatchRunnable = new Runnable() {
+        @Override
+        public void run() {
+            dispatchChanges();
+        }
+    };
+
+    /**
+     * @param channelData 频道数据，第一个板块为我的频道
+     */
+    public ChannelRepository(LinkedHashMap<String, List<Channel>> channelData) {
+        if (channelData != null) {
+            for (String plateName : channelData.keySet()) {
+                List<Channel> channels = channelData.get(plateName);
+                plateNames.add(plateName);
+                plates.add(channels == null ? new ArrayList<Channel>() : new ArrayList<>(channels));
+            }
+        }
+        //如果只有一组频道，默认再加上一组，与ChannelView保持一致
+        if (plates.size() == 1) {
+            plateNames.add("推荐频道");
+            plates.add(new ArrayList<Channel>());
+        }
+    }
+
+    public int getPlateCount() {
+        return plates.size();
+    }
+
+    public String getPlateName(int plate) {
+        return plateNames.get(plate);
+    }
+
+    /**
+     * 获取板块中的频道
+     *
+     * @param plate 板块位置
+     * @return 不可修改的列表
+     */
+    public List<Channel> getChannels(int plate) {
+        return Collections.unmodifiableList(plates.get(plate));
+    }
+
+    /**
+     * 插入频道
+     *
+     * @param plate   板块位置
+     * @param index   插入位置
+     * @param channel 频道
+     */
+    public void addChannel(int plate, int index, Channel channel) {
+        plates.get(plate).add(index, channel);
+        postChange(new Change(Change.INSERT, channel, -1, -1, plate, index), null);
+    }
+
+    /**
+     * 删除频道
+     *
+     * @param plate 板块位置
+     * @param index 频道位置
+     */
+    public void removeChannel(int plate, int index) {
+        Channel channel = plates.get(plate).remove(index);
+        postChange(new Change(Change.REMOVE, channel, plate, index, -1, -1), null);
+    }
+
+    /**
+     * 移动频道，可在板块之间或板块内移动
+     *
+     * @param fromPlate 原板块位置
+     * @param fromIndex 原频道位置
+     * @param toPlate   目标板块位置
+     * @param toIndex   目标频道位置
+     */
+    public void moveChannel(int fromPlate, int fromIndex, int toPlate, int toIndex) {
+        Channel channel = plates.get(fromPlate).remove(fromIndex);
+        plates.get(toPlate).add(toIndex, channel);
+        postChange(new Change(Change.MOVE, channel, fromPlate, fromIndex, toPlate, toIndex), null);
+    }
+
+    /**
+     * 按频道移动，观察者中的位置可能与数据仓库不一致（还有未通知的变化），
+     * 所以按频道重新查找当前位置，目标位置超出范围时放到末尾，频道已被删除时忽略
+     *
+     * @param fromIndex 观察者中的原频道位置，优先在这里查找
+     * @param source    发起修改的观察者，该观察者不会收到这次变化
+     */
+    void moveChannel(Channel channel, int fromPlate, int fromIndex, int toPlate, int toIndex, Observer source) {
+        if (toPlate < 0 || toPlate >= plates.size()) {
+            return;
+        }
+        if (fromPlate < 0 || fromPlate >= plates.size() || (fromIndex = indexOf(plates.get(fromPlate), channel, fromIndex)) < 0) {
+            fromIndex = -1;
+            for (fromPlate = 0; fromPlate < plates.size(); fromPlate++) {
+                if ((fromIndex = indexOf(plates.get(fromPlate), channel, -1)) >= 0) {
+                    break;
+                }
+            }
+            if (fromIndex < 0) {
+                return;
+            }
+        }
+        plates.get(fromPlate).remove(fromIndex);
+        toIndex = Math.min(Math.max(toIndex, 0), plates.get(toPlate).size());
+        plates.get(toPlate).add(toIndex, channel);
+        postChange(new Change(Change.MOVE, channel, fromPlate, fromIndex, toPlate, toIndex), source);
+    }
+
+    /**
+     * 按引用查找频道位置
+     *
+     * @param hint 优先检查的位置
+     */
+    private static int indexOf(List<Channel> channels, Channel channel, int hint) {
+        if (hint >= 0 && hint < channels.size() && channels.get(hint) == channel) {
+            return hint;
+        }
+        for (int i = 0; i < channels.size(); i++) {
+            if (channels.get(i) == channel) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public void registerObserver(Observer observer) {
+        if (!observers.contains(observer)) {
+            observers.add(observer);
+        }
+    }
+
+    public void unregisterObserver(Observer observer) {
+        observers.remove(observer);
+    }
+
+    /**
+     * 获取当前频道数据的副本
+     *
+     * @return
+     */
+    LinkedHashMap<String, List<Channel>> getChannelData() {
+        LinkedHashMap<String, List<Channel>> channelData = new LinkedHashMap<>();
+        for (int i = 0; i < plates.size(); i++) {
+            channelData.put(plateNames.get(i), new ArrayList<>(plates.get(i)));
+        }
+        return channelData;
+    }
+
+    private void postChange(Change change, Observer source) {
+        change.source = source;
+        pendingChanges.add(change);
+        if (isDispatchScheduled) {
+            return;
+        }
+        isDispatchScheduled = true;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (dispatchFrameCallback == null) {
+                dispatchFrameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        dispatchChanges();
+                    }
+                };
+            }
+            Choreographer.getInstance().postFrameCallback(dispatchFrameCallback);
+        } else {
+            handler.post(dispatchRunnable);
+        }
+    }
+
+    /**
+     * 将这一帧内合并的变化通知给观察者
+     */
+    private void dispatchChanges() {
+        isDispatchScheduled = false;
+        if (pendingChanges.isEmpty()) {
+            return;
+        }
+        List<Change> changes = pendingChanges;
+        pendingChanges = new ArrayList<>();
+        for (Observer observer : new ArrayList<>(observers)) {
+            List<Change> observerChanges = new ArrayList<>(changes.size());
+            for (Change change : changes) {
+                if (change.source != observer) {
+                    observerChanges.add(change);
+                }
+            }
+            if (observerChanges.size() > 0) {
+                observer.onChannelsChanged(observerChanges);
+            }
+        }
+    }
+
+    public interface Observer {
+        /**
+         * 数据仓库发生变化，按发生顺序排列
+         *
+         * @param changes
+         */
+        void onChannelsChanged(List<Change> changes);
+    }
+
+    /**
+     * 频道变化事件
+     */
+    public static class Change {
+        public static final int INSERT = 0x01;
+        public static final int REMOVE = 0x02;
+        public static final int MOVE = 0x03;
+
+        int type;
+        Channel channel;
+        int fromPlate;
+        int fromIndex;
+        int toPlate;
+        int toIndex;
+        Observer source;
+
+        Change(int type, Channel channel, int fromPlate, int fromIndex, int toPlate, int toIndex) {
+            this.type = type;
+            this.channel = channel;
+            this.fromPlate = fromPlate;
+            this.fromIndex = fromIndex;
+            this.toPlate = toPlate;
+            this.toIndex = toIndex;
+        }
+
+        public int getType() {
+            return type;
+        }
+
+        public Channel getChannel() {
+            return channel;
+        }
+
+        public int getFromPlate() {
+            return fromPlate;
+        }
+
+        public int getFromIndex() {
+            return fromIndex;
+        }
+
+        public int getToPlate() {
+            return toPlate;
+        }
+
+        public int getToIndex() {
+            return toIndex;
+        }
+    }
+}
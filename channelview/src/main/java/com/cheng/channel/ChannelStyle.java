@@ -0,0 +1,322 @@
+package com.cheng.channel;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.support.annotation.StyleRes;
+import android.util.AttributeSet;
+import android.util.SparseArray;
+import android.util.TypedValue;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 解析完成的ChannelView样式，不可修改。
+ * 按主题和样式资源缓存，相同主题和样式的ChannelView共用同一份样式，不必每次都重新解析属性，
+ * 布局文件中直接设置的属性只解析这些属性并覆盖在缓存的样式上，日夜间模式切换后会重新解析
+ */
+public final class ChannelStyle {
+    private static final Map<Resources.Theme, SparseArray<ChannelStyle>> styleCache = new WeakHashMap<>();
+
+    /**
+     * 解析时使用的样式资源
+     */
+    final int styleRes;
+
+    /**
+     * 解析时的夜间模式
+     */
+    final int nightMode;
+
+    final int channelHeight;
+    final int channelColumn;
+    final int channelPadding;
+    final int channelHorizontalSpacing;
+    final int channelVerticalSpacing;
+    final int channelNormalBackground;
+    final int channelEditBackground;
+    final int channelFocusedBackground;
+    final int channelFixedBackground;
+    final int channelNormalTextColor;
+    final int channelFixedTextColor;
+    final int channelFocusedTextColor;
+    final int channelFixedCount;
+    final int channelTextSize;
+    final int channelPlaceholderColor;
+    final int tipEditBackground;
+    final int tipEditTextColor;
+    final int tipEditTextSize;
+    final int tipFinishBackground;
+    final int tipFinishTextColor;
+    final int tipFinishTextSize;
+    final int platesTitleBackground;
+    final int platesTitleColor;
+    final boolean platesTitleBold;
+    final int platesTitleSize;
+    final int platesTitleHeight;
+    final int platesTitleLeftRightPadding;
+    final int otherSubTitleBackground;
+    final int otherSubTitleTextColor;
+    final int otherSubTitleTextSize;
+    final int subTitleBackground;
+    final int subTitleTextColor;
+    final int subTitleTextSize;
+    final String subTitleName;
+    final String otherSubTitleName;
+
+    /**
+     * 主题和样式资源中ChannelView属性解析后的值，按属性位置保存，相同主题和样式资源的样式共用
+     */
+    private final SparseArray<TypedValue> styleValues;
+
+    /**
+     * 布局文件中直接设置的属性值，按属性位置保存，没有时为null。
+     * 这些属性优先于styleValues，资源引用保存为TYPE_REFERENCE，主题属性引用保存为TYPE_ATTRIBUTE，使用时再解析，
+     * 切换主题后按新的配置和主题读取，其它的值保存解析后的值
+     */
+    private final SparseArray<TypedValue> inlineValues;
+
+    private ChannelStyle(Context context, int styleRes, SparseArray<TypedValue> styleValues, SparseArray<TypedValue> inlineValues) {
+        Resources resources = context.getResources();
+        this.styleRes = styleRes;
+        this.styleValues = styleValues;
+        this.inlineValues = inlineValues;
+        nightMode = getNightMode(context);
+        channelHeight = getDimensionPixelSize(context, R.styleable.ChannelView_channelHeight, resources.getDimensionPixelSize(R.dimen.channelHeight));
+        channelColumn = Math.max(getInteger(context, R.styleable.ChannelView_channelColumn, 4), 1);
+        channelPadding = getDimensionPixelSize(context, R.styleable.ChannelView_channelPadding, resources.getDimensionPixelSize(R.dimen.channelPadding));
+        channelHorizontalSpacing = getDimensionPixelSize(context, R.styleable.ChannelView_channelHorizontalSpacing, resources.getDimensionPixelSize(R.dimen.channelHorizontalSpacing));
+        channelVerticalSpacing = getDimensionPixelSize(context, R.styleable.ChannelView_channelVerticalSpacing, resources.getDimensionPixelSize(R.dimen.channelVerticalSpacing));
+        channelNormalBackground = getResourceId(context, R.styleable.ChannelView_channelNormalBackground, R.drawable.bg_channel_normal);
+        channelEditBackground = getResourceId(context, R.styleable.ChannelView_channelEditBackground, R.drawable.bg_channel_edit);
+        channelFocusedBackground = getResourceId(context, R.styleable.ChannelView_channelFocusedBackground, R.drawable.bg_channel_focused);
+        channelFixedBackground = getResourceId(context, R.styleable.ChannelView_channelFixedBackground, R.drawable.bg_channel_normal);
+        channelNormalTextColor = getColor(context, R.styleable.ChannelView_channelNormalTextColor, resources.getColor(R.color.channelNormalTextColor));
+        channelFixedTextColor = getColor(context, R.styleable.ChannelView_channelFixedTextColor, resources.getColor(R.color.channelFixedTextColor));
+        channelFocusedTextColor = getColor(context, R.styleable.ChannelView_channelFocusedTextColor, resources.getColor(R.color.channelNormalTextColor));
+        channelFixedCount = Math.max(getInteger(context, R.styleable.ChannelView_channelFixedCount, 0), 0);
+        channelTextSize = getDimensionPixelSize(context, R.styleable.ChannelView_channelTextSize, resources.getDimensionPixelSize(R.dimen.channelTextSize));
+        tipEditBackground = getResourceId(context, R.styleable.ChannelView_tipEditBackground, R.drawable.bg_channel_transparent);
+        platesTitleBackground = getResourceId(context, R.styleable.ChannelView_platesTitleBackground, R.drawable.bg_channel_transparent);
+        tipEditTextColor = getColor(context, R.styleable.ChannelView_tipEditTextColor, resources.getColor(R.color.channelNormalTextColor));
+        platesTitleColor = getColor(context, R.styleable.ChannelView_platesTitleColor, resources.getColor(R.color.channelNormalTextColor));
+        platesTitleBold = getBoolean(context, R.styleable.ChannelView_platesTitleBold, false);
+        platesTitleSize = getDimensionPixelSize(context, R.styleable.ChannelView_platesTitleSize, resources.getDimensionPixelSize(R.dimen.channelTextSize));
+        tipEditTextSize = getDimensionPixelSize(context, R.styleable.ChannelView_tipEditTextSize, resources.getDimensionPixelSize(R.dimen.channelTextSize));
+        platesTitleHeight = getDimensionPixelSize(context, R.styleable.ChannelView_platesTitleHeight, resources.getDimensionPixelSize(R.dimen.platesTitleHeight));
+        platesTitleLeftRightPadding = getDimensionPixelSize(context, R.styleable.ChannelView_platesTitleLeftRightPadding, resources.getDimensionPixelSize(R.dimen.platesTitleLeftRightPadding));
+        otherSubTitleBackground = getResourceId(context, R.styleable.ChannelView_otherSubTitleBackground, R.drawable.bg_channel_transparent);
+        otherSubTitleTextColor = getColor(context, R.styleable.ChannelView_otherSubTitleTextColor, resources.getColor(R.color.subTitleTextColor));
+        otherSubTitleTextSize = getDimensionPixelSize(context, R.styleable.ChannelView_otherSubTitleTextSize, resources.getDimensionPixelSize(R.dimen.subTitleTextSize));
+        subTitleBackground = getResourceId(context, R.styleable.ChannelView_subTitleBackground, R.drawable.bg_channel_transparent);
+        subTitleTextColor = getColor(context, R.styleable.ChannelView_subTitleTextColor, resources.getColor(R.color.subTitleTextColor));
+        subTitleTextSize = getDimensionPixelSize(context, R.styleable.ChannelView_subTitleTextSize, resources.getDimensionPixelSize(R.dimen.subTitleTextSize));
+        String subTitleName = getString(context, R.styleable.ChannelView_subTitleName);
+        String otherSubTitleName = getString(context, R.styleable.ChannelView_otherSubTitleName);
+        this.subTitleName = subTitleName == null ? "" : subTitleName;
+        this.otherSubTitleName = otherSubTitleName == null ? "" : otherSubTitleName;
+        tipFinishBackground = getResourceId(context, R.styleable.ChannelView_tipFinishBackground, R.drawable.bg_channel_transparent);
+        tipFinishTextColor = getColor(context, R.styleable.ChannelView_tipFinishTextColor, resources.getColor(R.color.channelNormalTextColor));
+        tipFinishTextSize = getDimensionPixelSize(context, R.styleable.ChannelView_tipFinishTextSize, resources.getDimensionPixelSize(R.dimen.channelTextSize));
+        channelPlaceholderColor = getColor(context, R.styleable.ChannelView_channelPlaceholderColor, resources.getColor(R.color.channelPlaceholderColor));
+    }
+
+    /**
+     * 获取属性的值，布局文件中直接设置的属性优先，都没有时返回null。
+     * 直接设置的资源引用按当前配置重新读取，主题属性引用按context的主题解析
+     */
+    private TypedValue getValue(Context context, int index) {
+        TypedValue value = inlineValues == null ? null : inlineValues.get(index);
+        if (value == null) {
+            return styleValues.get(index);
+        }
+        if (value.type == TypedValue.TYPE_ATTRIBUTE) {
+            TypedValue resolved = new TypedValue();
+            //新的主题中没有这个属性时使用样式中的值
+            return context.getTheme().resolveAttribute(value.data, resolved, true) ? resolved : styleValues.get(index);
+        }
+        if (value.type == TypedValue.TYPE_REFERENCE) {
+            TypedValue resolved = new TypedValue();
+            context.getResources().getValue(value.data, resolved, true);
+            return resolved;
+        }
+        return value;
+    }
+
+    private int getDimensionPixelSize(Context context, int index, int defValue) {
+        TypedValue value = getValue(context, index);
+        if (value == null || value.type != TypedValue.TYPE_DIMENSION) {
+            return defValue;
+        }
+        return TypedValue.complexToDimensionPixelSize(value.data, context.getResources().getDisplayMetrics());
+    }
+
+    private int getInteger(Context context, int index, int defValue) {
+        TypedValue value = getValue(context, index);
+        return value != null && value.type >= TypedValue.TYPE_FIRST_INT && value.type <= TypedValue.TYPE_LAST_INT ? value.data : defValue;
+    }
+
+    private boolean getBoolean(Context context, int index, boolean defValue) {
+        TypedValue value = getValue(context, index);
+        return value != null && value.type >= TypedValue.TYPE_FIRST_INT && value.type <= TypedValue.TYPE_LAST_INT ? value.data != 0 : defValue;
+    }
+
+    private int getColor(Context context, int index, int defValue) {
+        TypedValue value = getValue(context, index);
+        if (value == null) {
+            return defValue;
+        }
+        if (value.type >= TypedValue.TYPE_FIRST_COLOR_INT && value.type <= TypedValue.TYPE_LAST_COLOR_INT) {
+            return value.data;
+        }
+        //引用的颜色可能是ColorStateList
+        return value.resourceId != 0 ? context.getResources().getColor(value.resourceId) : defValue;
+    }
+
+    private int getResourceId(Context context, int index, int defValue) {
+        TypedValue value = getValue(context, index);
+        return value != null && value.resourceId != 0 ? value.resourceId : defValue;
+    }
+
+    private String getString(Context context, int index) {
+        TypedValue value = getValue(context, index);
+        CharSequence string = value == null ? null : value.coerceToString();
+        return string == null ? null : string.toString();
+    }
+
+    /**
+     * 获取context主题下样式资源对应的样式，同一主题和样式资源只会解析一次
+     *
+     * @param context
+     * @param styleRes ChannelView的样式资源，为0时只使用主题中的属性
+     * @return
+     */
+    public static ChannelStyle obtain(Context context, @StyleRes int styleRes) {
+        Resources.Theme theme = context.getTheme();
+        synchronized (styleCache) {
+            SparseArray<ChannelStyle> styles = styleCache.get(theme);
+            if (styles == null) {
+                styles = new SparseArray<>();
+                styleCache.put(theme, styles);
+            }
+            ChannelStyle channelStyle = styles.get(styleRes);
+            if (channelStyle == null || channelStyle.nightMode != getNightMode(context)) {
+                TypedArray typedArray = theme.obtainStyledAttributes(null, R.styleable.ChannelView, 0, styleRes);
+                SparseArray<TypedValue> styleValues = new SparseArray<>();
+                for (int i = 0; i < typedArray.length(); i++) {
+                    TypedValue value = new TypedValue();
+                    if (typedArray.getValue(i, value)) {
+                        styleValues.put(i, value);
+                    }
+                }
+                typedArray.recycle();
+                channelStyle = new ChannelStyle(context, styleRes, styleValues, null);
+                styles.put(styleRes, channelStyle);
+            }
+            return channelStyle;
+        }
+    }
+
+    /**
+     * 主题和样式资源部分使用缓存的样式，布局文件中直接设置的属性只解析这些属性，覆盖在缓存的样式上
+     */
+    static ChannelStyle obtain(Context context, AttributeSet attrs) {
+        ChannelStyle channelStyle = obtain(context, attrs == null ? 0 : attrs.getStyleAttribute());
+        if (attrs == null) {
+            return channelStyle;
+        }
+        SparseArray<TypedValue> inlineValues = new SparseArray<>();
+        //需要通过TypedArray解析的直接设置的值，按属性id排序，obtainStyledAttributes要求属性数组是有序的
+        int[] indexes = new int[attrs.getAttributeCount()];
+        int count = 0;
+        for (int i = 0; i < attrs.getAttributeCount(); i++) {
+            int index = indexOfAttribute(attrs.getAttributeNameResource(i));
+            if (index < 0) {
+                continue;
+            }
+            TypedValue value = new TypedValue();
+            int resourceId = attrs.getAttributeResourceValue(i, 0);
+            int attrId = resourceId == 0 ? getAttributeReference(attrs.getAttributeValue(i)) : 0;
+            if (resourceId != 0) {
+                value.type = TypedValue.TYPE_REFERENCE;
+                value.data = resourceId;
+                inlineValues.put(index, value);
+            } else if (attrId != 0) {
+                value.type = TypedValue.TYPE_ATTRIBUTE;
+                value.data = attrId;
+                inlineValues.put(index, value);
+            } else {
+                indexes[count++] = index;
+            }
+        }
+        if (count > 0) {
+            Arrays.sort(indexes, 0, count);
+            int[] inlineAttrs = new int[count];
+            for (int i = 0; i < count; i++) {
+                inlineAttrs[i] = R.styleable.ChannelView[indexes[i]];
+            }
+            TypedArray typedArray = context.obtainStyledAttributes(attrs, inlineAttrs);
+            for (int i = 0; i < count; i++) {
+                TypedValue value = new TypedValue();
+                if (typedArray.getValue(i, value)) {
+                    inlineValues.put(indexes[i], value);
+                }
+            }
+            typedArray.recycle();
+        }
+        if (inlineValues.size() == 0) {
+            return channelStyle;
+        }
+        return new ChannelStyle(context, channelStyle.styleRes, channelStyle.styleValues, inlineValues);
+    }
+
+    /**
+     * 按context的主题重新解析样式，布局文件中直接设置的属性保持不变
+     *
+     * @param context
+     * @param channelStyle 原来的样式
+     * @return
+     */
+    static ChannelStyle obtain(Context context, ChannelStyle channelStyle) {
+        ChannelStyle themeStyle = obtain(context, channelStyle.styleRes);
+        if (channelStyle.inlineValues == null) {
+            return themeStyle;
+        }
+        return new ChannelStyle(context, channelStyle.styleRes, themeStyle.styleValues, channelStyle.inlineValues);
+    }
+
+    static int getNightMode(Context context) {
+        return context.getResources().getConfiguration().uiMode & Configuration.UI_MODE_NIGHT_MASK;
+    }
+
+    /**
+     * 编译后的布局中主题属性引用的值为"?属性id"
+     *
+     * @return 不是主题属性引用时返回0
+     */
+    private static int getAttributeReference(String value) {
+        if (value == null || value.length() < 2 || value.charAt(0) != '?') {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.substring(1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 属性在R.styleable.ChannelView中的位置，不是ChannelView的属性时返回-1
+     */
+    private static int indexOfAttribute(int nameResource) {
+        for (int i = 0; i < R.styleable.ChannelView.length; i++) {
+            if (R.styleable.ChannelView[i] == nameResource) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -4,35 +4,49 @@ import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
 import android.animation.AnimatorSet;
 import android.animation.ValueAnimator;
+import android.app.ActivityManager;
 import android.content.Context;
-import android.content.res.TypedArray;
+import android.content.res.Configuration;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.PointF;
+import android.graphics.RectF;
 import android.graphics.Typeface;
+import android.graphics.drawable.BitmapDrawable;
+import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.provider.Settings;
 import android.support.annotation.ColorInt;
 import android.support.annotation.DimenRes;
 import android.support.annotation.DrawableRes;
 import android.support.annotation.Nullable;
 import android.util.AttributeSet;
 import android.util.TypedValue;
+import android.view.Choreographer;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
-import android.view.ViewPropertyAnimator;
+import android.view.ViewParent;
 import android.widget.GridLayout;
 import android.widget.ScrollView;
 import android.widget.TextView;
 
+import com.cheng.channel.adapter.IconStyleAdapter;
+import com.cheng.channel.adapter.PagedStyleAdapter;
+import com.cheng.channel.adapter.RecyclableStyleAdapter;
 import com.cheng.channel.adapter.StyleAdapter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 public class ChannelView extends ScrollView {
     private Context mContext;
@@ -102,6 +116,9 @@ public class ChannelView extends ScrollView {
     @Deprecated
     private int channelFocusedTextColor;
 
+    @ColorInt
+    private int channelPlaceholderColor;
+
     @DrawableRes
     private int tipEditBackground;
 
@@ -158,7 +175,7 @@ public class ChannelView extends ScrollView {
     private float density;
 
     public ChannelView(Context context) {
-        this(context, null);
+        this(context, (AttributeSet) null);
     }
 
     public ChannelView(Context context, AttributeSet attrs) {
@@ -167,57 +184,105 @@ public class ChannelView extends ScrollView {
 
     public ChannelView(Context context, AttributeSet attrs, int defStyleAttr) {
         super(context, attrs, defStyleAttr);
+        init(context, ChannelStyle.obtain(context, attrs));
+    }
+
+    /**
+     * 使用已解析的样式创建，不再解析属性
+     *
+     * @param context
+     * @param channelStyle
+     */
+    public ChannelView(Context context, ChannelStyle channelStyle) {
+        super(context);
+        init(context, channelStyle);
+    }
+
+    private void init(Context context, ChannelStyle channelStyle) {
         this.mContext = context;
-        TypedArray typedArray = context.obtainStyledAttributes(attrs, R.styleable.ChannelView);
-        channelHeight = typedArray.getDimensionPixelSize(R.styleable.ChannelView_channelHeight, getResources().getDimensionPixelSize(R.dimen.channelHeight));
-        channelColumn = typedArray.getInteger(R.styleable.ChannelView_channelColumn, channelColumn);
-        channelPadding = typedArray.getDimensionPixelSize(R.styleable.ChannelView_channelPadding, getResources().getDimensionPixelSize(R.dimen.channelPadding));
-        channelHorizontalSpacing = typedArray.getDimensionPixelSize(R.styleable.ChannelView_channelHorizontalSpacing, getResources().getDimensionPixelSize(R.dimen.channelHorizontalSpacing));
-        channelVerticalSpacing = typedArray.getDimensionPixelSize(R.styleable.ChannelView_channelVerticalSpacing, getResources().getDimensionPixelSize(R.dimen.channelVerticalSpacing));
-        channelNormalBackground = typedArray.getResourceId(R.styleable.ChannelView_channelNormalBackground, R.drawable.bg_channel_normal);
-        channelEditBackground = typedArray.getResourceId(R.styleable.ChannelView_channelEditBackground, R.drawable.bg_channel_edit);
-        channelFocusedBackground = typedArray.getResourceId(R.styleable.ChannelView_channelFocusedBackground, R.drawable.bg_channel_focused);
-        channelFixedBackground = typedArray.getResourceId(R.styleable.ChannelView_channelFixedBackground, R.drawable.bg_channel_normal);
-        channelNormalTextColor = typedArray.getColor(R.styleable.ChannelView_channelNormalTextColor, getResources().getColor(R.color.channelNormalTextColor));
-        channelFixedTextColor = typedArray.getColor(R.styleable.ChannelView_channelFixedTextColor, getResources().getColor(R.color.channelFixedTextColor));
-        channelFocusedTextColor = typedArray.getColor(R.styleable.ChannelView_channelFocusedTextColor, getResources().getColor(R.color.channelNormalTextColor));
-        channelFixedCount = typedArray.getInteger(R.styleable.ChannelView_channelFixedCount, channelFixedCount);
-        channelTextSize = typedArray.getDimensionPixelSize(R.styleable.ChannelView_channelTextSize, getResources().getDimensionPixelSize(R.dimen.channelTextSize));
-        tipEditBackground = typedArray.getResourceId(R.styleable.ChannelView_tipEditBackground, R.drawable.bg_channel_transparent);
-        platesTitleBackground = typedArray.getResourceId(R.styleable.ChannelView_platesTitleBackground, R.drawable.bg_channel_transparent);
-        tipEditTextColor = typedArray.getColor(R.styleable.ChannelView_tipEditTextColor, getResources().getColor(R.color.channelNormalTextColor));
-        platesTitleColor = typedArray.getColor(R.styleable.ChannelView_platesTitleColor, getResources().getColor(R.color.channelNormalTextColor));
-        platesTitleBold = typedArray.getBoolean(R.styleable.ChannelView_platesTitleBold, false);
-        platesTitleSize = typedArray.getDimensionPixelSize(R.styleable.ChannelView_platesTitleSize, getResources().getDimensionPixelSize(R.dimen.channelTextSize));
-        tipEditTextSize = typedArray.getDimensionPixelSize(R.styleable.ChannelView_tipEditTextSize, getResources().getDimensionPixelSize(R.dimen.channelTextSize));
-        platesTitleHeight = typedArray.getDimensionPixelSize(R.styleable.ChannelView_platesTitleHeight, getResources().getDimensionPixelSize(R.dimen.platesTitleHeight));
-        platesTitleLeftRightPadding = typedArray.getDimensionPixelSize(R.styleable.ChannelView_platesTitleLeftRightPadding, getResources().getDimensionPixelSize(R.dimen.platesTitleLeftRightPadding));
-        otherSubTitleBackground = typedArray.getResourceId(R.styleable.ChannelView_otherSubTitleBackground, R.drawable.bg_channel_transparent);
-        otherSubTitleTextColor = typedArray.getColor(R.styleable.ChannelView_otherSubTitleTextColor, getResources().getColor(R.color.subTitleTextColor));
-        otherSubTitleTextSize = typedArray.getDimensionPixelSize(R.styleable.ChannelView_otherSubTitleTextSize, getResources().getDimensionPixelSize(R.dimen.subTitleTextSize));
-        subTitleBackground = typedArray.getResourceId(R.styleable.ChannelView_subTitleBackground, R.drawable.bg_channel_transparent);
-        subTitleTextColor = typedArray.getColor(R.styleable.ChannelView_subTitleTextColor, getResources().getColor(R.color.subTitleTextColor));
-        subTitleTextSize = typedArray.getDimensionPixelSize(R.styleable.ChannelView_subTitleTextSize, getResources().getDimensionPixelSize(R.dimen.subTitleTextSize));
-        subTitleName = typedArray.getString(R.styleable.ChannelView_subTitleName);
-        otherSubTitleName = typedArray.getString(R.styleable.ChannelView_otherSubTitleName);
-        tipFinishBackground = typedArray.getResourceId(R.styleable.ChannelView_tipFinishBackground, R.drawable.bg_channel_transparent);
-        tipFinishTextColor = typedArray.getColor(R.styleable.ChannelView_tipFinishTextColor, getResources().getColor(R.color.channelNormalTextColor));
-        tipFinishTextSize = typedArray.getDimensionPixelSize(R.styleable.ChannelView_tipFinishTextSize, getResources().getDimensionPixelSize(R.dimen.channelTextSize));
-        typedArray.recycle();
-        if (subTitleName == null) {
-            subTitleName = "";
-        }
-        if (otherSubTitleName == null) {
-            otherSubTitleName = "";
-        }
-        if (channelColumn < 1) {
-            channelColumn = 1;
-        }
-        if (channelFixedCount < 0) {
-            channelFixedCount = 0;
-        }
+        themeStyle = channelStyle;
+        nightMode = channelStyle.nightMode;
+        readStyle(channelStyle);
+        channelColumn = channelStyle.channelColumn;
+        channelFixedCount = channelStyle.channelFixedCount;
+        subTitleName = channelStyle.subTitleName;
+        otherSubTitleName = channelStyle.otherSubTitleName;
         density = context.getResources().getDisplayMetrics().density;
         maxAccessDrag = density * DRAG_THRESHOLD + 0.5f;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            ActivityManager activityManager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+            isLowRamDevice = activityManager != null && activityManager.isLowRamDevice();
+        }
+    }
+
+    /**
+     * 创建时使用的样式，切换主题时按它的样式资源重新解析，并保留布局文件中直接设置的属性
+     */
+    private ChannelStyle themeStyle;
+
+    /**
+     * 当前样式对应的夜间模式
+     */
+    private int nightMode;
+
+    /**
+     * 按新的主题重新解析样式，并在原有的频道上直接刷新，频道排列、编辑状态和滑动位置保持不变。
+     * 布局文件中直接设置的属性保持原值，引用资源的属性按新的配置重新读取，引用主题属性（?attr）的按新的主题解析
+     *
+     * @param context 新主题的context，例如处理了uiMode变化的Activity
+     */
+    public void applyTheme(Context context) {
+        ChannelStyle channelStyle = ChannelStyle.obtain(context, themeStyle);
+        nightMode = channelStyle.nightMode;
+        applyStyle(channelStyle);
+    }
+
+    @Override
+    protected void onConfigurationChanged(Configuration newConfig) {
+        super.onConfigurationChanged(newConfig);
+        //Activity自己处理uiMode变化时，日夜间模式切换后直接刷新样式，不需要重建
+        if ((newConfig.uiMode & Configuration.UI_MODE_NIGHT_MASK) != nightMode) {
+            applyTheme(getContext());
+        }
+    }
+
+    /**
+     * 读取样式中的尺寸、颜色和背景，列数、固定频道数量和副标题不在这里读取
+     *
+     * @param channelStyle
+     */
+    private void readStyle(ChannelStyle channelStyle) {
+        channelHeight = channelStyle.channelHeight;
+        channelPadding = channelStyle.channelPadding;
+        channelHorizontalSpacing = channelStyle.channelHorizontalSpacing;
+        channelVerticalSpacing = channelStyle.channelVerticalSpacing;
+        channelNormalBackground = channelStyle.channelNormalBackground;
+        channelEditBackground = channelStyle.channelEditBackground;
+        channelFocusedBackground = channelStyle.channelFocusedBackground;
+        channelFixedBackground = channelStyle.channelFixedBackground;
+        channelNormalTextColor = channelStyle.channelNormalTextColor;
+        channelFixedTextColor = channelStyle.channelFixedTextColor;
+        channelFocusedTextColor = channelStyle.channelFocusedTextColor;
+        channelTextSize = channelStyle.channelTextSize;
+        channelPlaceholderColor = channelStyle.channelPlaceholderColor;
+        tipEditBackground = channelStyle.tipEditBackground;
+        tipEditTextColor = channelStyle.tipEditTextColor;
+        tipEditTextSize = channelStyle.tipEditTextSize;
+        tipFinishBackground = channelStyle.tipFinishBackground;
+        tipFinishTextColor = channelStyle.tipFinishTextColor;
+        tipFinishTextSize = channelStyle.tipFinishTextSize;
+        platesTitleBackground = channelStyle.platesTitleBackground;
+        platesTitleColor = channelStyle.platesTitleColor;
+        platesTitleBold = channelStyle.platesTitleBold;
+        platesTitleSize = channelStyle.platesTitleSize;
+        platesTitleHeight = channelStyle.platesTitleHeight;
+        platesTitleLeftRightPadding = channelStyle.platesTitleLeftRightPadding;
+        otherSubTitleBackground = channelStyle.otherSubTitleBackground;
+        otherSubTitleTextColor = channelStyle.otherSubTitleTextColor;
+        otherSubTitleTextSize = channelStyle.otherSubTitleTextSize;
+        subTitleBackground = channelStyle.subTitleBackground;
+        subTitleTextColor = channelStyle.subTitleTextColor;
+        subTitleTextSize = channelStyle.subTitleTextSize;
     }
 
     /**
@@ -265,6 +330,89 @@ public class ChannelView extends ScrollView {
         this.recommendPosition = recommendPosition;
     }
 
+    /**
+     * 撤销上一次频道编辑
+     *
+     * @return 是否撤销成功
+     */
+    public boolean undo() {
+        return channelLayout != null && channelLayout.undoOrRedo(true);
+    }
+
+    /**
+     * 重做上一次撤销的频道编辑
+     *
+     * @return 是否重做成功
+     */
+    public boolean redo() {
+        return channelLayout != null && channelLayout.undoOrRedo(false);
+    }
+
+    public boolean canUndo() {
+        return channelLayout != null && channelLayout.editLog.canUndo();
+    }
+
+    public boolean canRedo() {
+        return channelLayout != null && channelLayout.editLog.canRedo();
+    }
+
+    /**
+     * 等待布局完成后滚动到的板块和频道，没有则为-1
+     */
+    private int pendingScrollPlate = -1, pendingScrollIndex = -1;
+
+    /**
+     * 滚动到指定板块，板块标题显示在顶部
+     *
+     * @param plate 板块位置
+     */
+    public void scrollToPlate(int plate) {
+        scrollToChannel(plate, -1);
+    }
+
+    /**
+     * 滚动到指定频道，频道所在的行显示在顶部
+     *
+     * @param plate 板块位置
+     * @param index 频道在板块中的位置
+     */
+    public void scrollToChannel(int plate, int index) {
+        pendingScrollPlate = -1;
+        if (channelLayout == null || plate < 0 || plate >= channelLayout.plateViews.size()) {
+            return;
+        }
+        if (channelLayout.isAgainLayout) {
+            //板块高度在首次布局后才确定
+            pendingScrollPlate = plate;
+            pendingScrollIndex = index;
+            return;
+        }
+        int y = index < 0 ? channelLayout.getPlateTop(plate) : channelLayout.getChannelTop(plate, index);
+        smoothScrollTo(0, channelLayout.getTop() + y);
+    }
+
+    /**
+     * 设置列数，已显示的频道会通过动画移动到新的位置，不会重新创建
+     *
+     * @param channelColumn
+     */
+    public void setChannelColumn(int channelColumn) {
+        if (channelColumn < 1) {
+            channelColumn = 1;
+        }
+        if (this.channelColumn == channelColumn) {
+            return;
+        }
+        this.channelColumn = channelColumn;
+        if (isStyleUpdating()) {
+            isStyleLayoutChanged = true;
+            return;
+        }
+        if (channelLayout != null) {
+            channelLayout.changeColumn();
+        }
+    }
+
     /**
      * 添加频道板块
      *
@@ -296,6 +444,10 @@ public class ChannelView extends ScrollView {
      */
     @Deprecated
     public void setChannelNormalBackground(@DrawableRes int channelNormalBackground) {
+        this.channelNormalBackground = channelNormalBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             for (View view : allTextView) {
                 defaultStyleAdapter.setBackgroundResource(view, channelNormalBackground);
@@ -310,6 +462,10 @@ public class ChannelView extends ScrollView {
      */
     @Deprecated
     public void setChannelEditBackground(@DrawableRes int channelEditBackground) {
+        this.channelEditBackground = channelEditBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             defaultStyleAdapter.setChannelEditBackground(channelEditBackground);
         }
@@ -322,6 +478,10 @@ public class ChannelView extends ScrollView {
      */
     @Deprecated
     public void setChannelFocusedBackground(@DrawableRes int channelFocusedBackground) {
+        this.channelFocusedBackground = channelFocusedBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             defaultStyleAdapter.setChannelFocusedBackground(channelFocusedBackground);
         }
@@ -335,6 +495,10 @@ public class ChannelView extends ScrollView {
      */
     @Deprecated
     public void setChannelFixedBackground(@DrawableRes int channelFixedBackground) {
+        this.channelFixedBackground = channelFixedBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             for (View view : fixedTextView) {
                 defaultStyleAdapter.setBackgroundResource(view, channelFixedBackground);
@@ -350,6 +514,10 @@ public class ChannelView extends ScrollView {
      */
     @Deprecated
     public void setChannelFixedTextColor(@ColorInt int channelFixedTextColor) {
+        this.channelFixedTextColor = channelFixedTextColor;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             for (View view : fixedTextView) {
                 defaultStyleAdapter.setTextColor(view, channelFixedTextColor);
@@ -365,6 +533,10 @@ public class ChannelView extends ScrollView {
      */
     @Deprecated
     public void setChannelNormalTextColor(@ColorInt int channelNormalTextColor) {
+        this.channelNormalTextColor = channelNormalTextColor;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             for (View view : allTextView) {
                 defaultStyleAdapter.setTextColor(view, channelNormalTextColor);
@@ -380,6 +552,10 @@ public class ChannelView extends ScrollView {
      */
     @Deprecated
     public void setChannelFocusedTextColor(@ColorInt int channelFocusedTextColor) {
+        this.channelFocusedTextColor = channelFocusedTextColor;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             defaultStyleAdapter.setChannelFocusedTextColor(channelFocusedTextColor);
         }
@@ -394,6 +570,9 @@ public class ChannelView extends ScrollView {
     @Deprecated
     public void setChannelTextSizeRes(@DimenRes int channelTextSize) {
         this.channelTextSize = getResources().getDimensionPixelSize(channelTextSize);
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             for (View view : allTextView) {
                 defaultStyleAdapter.setTextSize(view, this.channelTextSize);
@@ -415,6 +594,9 @@ public class ChannelView extends ScrollView {
     @Deprecated
     public void setChannelTextSize(int unit, int channelTextSize) {
         this.channelTextSize = (int) TypedValue.applyDimension(unit, channelTextSize, getResources().getDisplayMetrics());
+        if (isStyleUpdating()) {
+            return;
+        }
         if (checkDefaultAdapter()) {
             for (View view : allTextView) {
                 defaultStyleAdapter.setTextSize(view, this.channelTextSize);
@@ -434,6 +616,9 @@ public class ChannelView extends ScrollView {
      */
     public void setPlatesTitleBackground(@DrawableRes int platesTitleBackground) {
         this.platesTitleBackground = platesTitleBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView title : platesTitle) {
             title.setBackgroundResource(platesTitleBackground);
         }
@@ -446,6 +631,9 @@ public class ChannelView extends ScrollView {
      */
     public void setPlatesTitleColor(@ColorInt int platesTitleColor) {
         this.platesTitleColor = platesTitleColor;
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView title : platesTitle) {
             title.setTextColor(platesTitleColor);
         }
@@ -458,6 +646,9 @@ public class ChannelView extends ScrollView {
      */
     public void setTipEditBackground(@DrawableRes int tipEditBackground) {
         this.tipEditBackground = tipEditBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.tipEdit != null) {
             channelLayout.tipEdit.setBackgroundResource(tipEditBackground);
         }
@@ -470,6 +661,9 @@ public class ChannelView extends ScrollView {
      */
     public void setTipFinishBackground(@DrawableRes int tipFinishBackground) {
         this.tipFinishBackground = tipFinishBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.tipFinish != null) {
             channelLayout.tipFinish.setBackgroundResource(tipFinishBackground);
         }
@@ -482,6 +676,9 @@ public class ChannelView extends ScrollView {
      */
     public void setTipEditTextColor(@ColorInt int tipEditTextColor) {
         this.tipEditTextColor = tipEditTextColor;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.tipEdit != null) {
             channelLayout.tipEdit.setTextColor(tipEditTextColor);
         }
@@ -494,6 +691,9 @@ public class ChannelView extends ScrollView {
      */
     public void setTipFinishTextColor(@ColorInt int tipFinishTextColor) {
         this.tipFinishTextColor = tipFinishTextColor;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.tipFinish != null) {
             channelLayout.tipFinish.setTextColor(tipFinishTextColor);
         }
@@ -506,6 +706,9 @@ public class ChannelView extends ScrollView {
      */
     public void setPlatesTitleBold(boolean platesTitleBold) {
         this.platesTitleBold = platesTitleBold;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (platesTitleBold) {
             for (TextView title : platesTitle) {
                 title.setTypeface(Typeface.DEFAULT_BOLD);
@@ -521,6 +724,9 @@ public class ChannelView extends ScrollView {
      */
     public void setPlatesTitleSize(int unit, int platesTitleSize) {
         this.platesTitleSize = (int) TypedValue.applyDimension(unit, platesTitleSize, getResources().getDisplayMetrics());
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView title : platesTitle) {
             title.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.platesTitleSize);
         }
@@ -528,6 +734,9 @@ public class ChannelView extends ScrollView {
 
     public void setPlatesTitleSizeRes(@DimenRes int platesTitleSize) {
         this.platesTitleSize = getResources().getDimensionPixelSize(platesTitleSize);
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView title : platesTitle) {
             title.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.platesTitleSize);
         }
@@ -541,6 +750,9 @@ public class ChannelView extends ScrollView {
      */
     public void setTipEditTextSize(int unit, int tipEditTextSize) {
         this.tipEditTextSize = (int) TypedValue.applyDimension(unit, tipEditTextSize, getResources().getDisplayMetrics());
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.tipEdit != null) {
             channelLayout.tipEdit.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.tipEditTextSize);
         }
@@ -548,6 +760,9 @@ public class ChannelView extends ScrollView {
 
     public void setTipEditTextSizeRes(@DimenRes int tipEditTextSize) {
         this.tipEditTextSize = getResources().getDimensionPixelSize(tipEditTextSize);
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.tipEdit != null) {
             channelLayout.tipEdit.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.tipEditTextSize);
         }
@@ -561,6 +776,9 @@ public class ChannelView extends ScrollView {
      */
     public void setTipFinishTextSize(int unit, int tipFinishTextSize) {
         this.tipFinishTextSize = (int) TypedValue.applyDimension(unit, tipFinishTextSize, getResources().getDisplayMetrics());
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.tipFinish != null) {
             channelLayout.tipFinish.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.tipFinishTextSize);
         }
@@ -568,6 +786,9 @@ public class ChannelView extends ScrollView {
 
     public void setTipFinishTextSizeRes(@DimenRes int tipFinishTextSize) {
         this.tipFinishTextSize = getResources().getDimensionPixelSize(tipFinishTextSize);
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.tipFinish != null) {
             channelLayout.tipFinish.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.tipFinishTextSize);
         }
@@ -581,6 +802,9 @@ public class ChannelView extends ScrollView {
      */
     public void setOtherSubTitleBackground(@DrawableRes int otherSubTitleBackground) {
         this.otherSubTitleBackground = otherSubTitleBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView otherSubTitle : otherSubTitles) {
             otherSubTitle.setBackgroundResource(otherSubTitleBackground);
         }
@@ -593,6 +817,9 @@ public class ChannelView extends ScrollView {
      */
     public void setOtherSubTitleTextColor(@ColorInt int otherSubTitleTextColor) {
         this.otherSubTitleTextColor = otherSubTitleTextColor;
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView otherSubTitle : otherSubTitles) {
             otherSubTitle.setTextColor(otherSubTitleTextColor);
         }
@@ -606,6 +833,9 @@ public class ChannelView extends ScrollView {
      */
     public void setOtherSubTitleTextSize(int unit, int otherSubTitleTextSize) {
         this.otherSubTitleTextSize = (int) TypedValue.applyDimension(unit, otherSubTitleTextSize, getResources().getDisplayMetrics());
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView otherSubTitle : otherSubTitles) {
             otherSubTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.otherSubTitleTextSize);
         }
@@ -613,6 +843,9 @@ public class ChannelView extends ScrollView {
 
     public void setOtherSubTitleTextSizeRes(@DimenRes int otherSubTitleTextSize) {
         this.otherSubTitleTextSize = getResources().getDimensionPixelSize(otherSubTitleTextSize);
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView otherSubTitle : otherSubTitles) {
             otherSubTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.otherSubTitleTextSize);
         }
@@ -625,6 +858,9 @@ public class ChannelView extends ScrollView {
      */
     public void setSubTitleBackground(@DrawableRes int subTitleBackground) {
         this.subTitleBackground = subTitleBackground;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.subTitle != null) {
             channelLayout.subTitle.setBackgroundResource(subTitleBackground);
         }
@@ -637,6 +873,9 @@ public class ChannelView extends ScrollView {
      */
     public void setSubTitleTextColor(@ColorInt int subTitleTextColor) {
         this.subTitleTextColor = subTitleTextColor;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.subTitle != null) {
             channelLayout.subTitle.setTextColor(subTitleTextColor);
         }
@@ -650,6 +889,9 @@ public class ChannelView extends ScrollView {
      */
     public void setSubTitleTextSize(int unit, int subTitleTextSize) {
         this.subTitleTextSize = (int) TypedValue.applyDimension(unit, subTitleTextSize, getResources().getDisplayMetrics());
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.subTitle != null) {
             channelLayout.subTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.subTitleTextSize);
         }
@@ -657,6 +899,9 @@ public class ChannelView extends ScrollView {
 
     public void setSubTitleTextSizeRes(@DimenRes int subTitleTextSize) {
         this.subTitleTextSize = getResources().getDimensionPixelSize(subTitleTextSize);
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.subTitle != null) {
             channelLayout.subTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, this.subTitleTextSize);
         }
@@ -669,6 +914,9 @@ public class ChannelView extends ScrollView {
      */
     public void setSubTitleName(String subTitleName) {
         this.subTitleName = subTitleName;
+        if (isStyleUpdating()) {
+            return;
+        }
         if (channelLayout != null && channelLayout.subTitle != null) {
             channelLayout.subTitle.setText(subTitleName);
         }
@@ -685,15 +933,90 @@ public class ChannelView extends ScrollView {
      */
     public void setOtherSubTitleName(String otherSubTitleName) {
         this.otherSubTitleName = otherSubTitleName;
+        if (isStyleUpdating()) {
+            return;
+        }
         for (TextView otherSubTitle : otherSubTitles) {
             otherSubTitle.setText(otherSubTitleName);
         }
     }
 
+    /**
+     * 未提交的样式修改层数
+     */
+    private int styleUpdateCount;
+
+    /**
+     * 未提交的样式修改中是否有影响布局的修改
+     */
+    private boolean isStyleLayoutChanged;
+
+    private boolean isStyleUpdating() {
+        return styleUpdateCount > 0;
+    }
+
+    /**
+     * 开始批量修改样式，之后调用的样式设置方法只记录修改，在{@link #commitStyleUpdate()}时一次性应用，可嵌套调用
+     */
+    public void beginStyleUpdate() {
+        styleUpdateCount++;
+    }
+
+    /**
+     * 提交批量修改的样式，所有标题、按键和频道只刷新一遍，最多请求一次布局
+     */
+    public void commitStyleUpdate() {
+        if (styleUpdateCount == 0) {
+            throw new RuntimeException("commitStyleUpdate必须与beginStyleUpdate成对调用");
+        }
+        styleUpdateCount--;
+        if (styleUpdateCount > 0) {
+            return;
+        }
+        boolean isLayoutChanged = isStyleLayoutChanged;
+        isStyleLayoutChanged = false;
+        if (defaultStyleAdapter != null) {
+            setDefaultAdapterStyle();
+        }
+        if (channelLayout != null) {
+            channelLayout.restyle(isLayoutChanged);
+        }
+    }
+
+    /**
+     * 一次性应用样式，列数、固定频道数量和副标题不会改变
+     *
+     * @param channelStyle
+     */
+    public void applyStyle(ChannelStyle channelStyle) {
+        beginStyleUpdate();
+        if (channelHeight != channelStyle.channelHeight
+                || channelPadding != channelStyle.channelPadding
+                || channelHorizontalSpacing != channelStyle.channelHorizontalSpacing
+                || channelVerticalSpacing != channelStyle.channelVerticalSpacing
+                || platesTitleHeight != channelStyle.platesTitleHeight
+                || platesTitleLeftRightPadding != channelStyle.platesTitleLeftRightPadding) {
+            isStyleLayoutChanged = true;
+        }
+        readStyle(channelStyle);
+        commitStyleUpdate();
+    }
+
     private OnChannelListener onChannelListener;
 
     private DefaultStyleAdapter defaultStyleAdapter;
 
+    private void setDefaultAdapterStyle() {
+        defaultStyleAdapter.setChannelTextSize(channelTextSize);
+        defaultStyleAdapter.setChannelNormalBackground(channelNormalBackground);
+        defaultStyleAdapter.setChannelFocusedBackground(channelFocusedBackground);
+        defaultStyleAdapter.setChannelEditBackground(channelEditBackground);
+        defaultStyleAdapter.setChannelFixedBackground(channelFixedBackground);
+        defaultStyleAdapter.setChannelNormalTextColor(channelNormalTextColor);
+        defaultStyleAdapter.setChannelFixedTextColor(channelFixedTextColor);
+        defaultStyleAdapter.setChannelFocusedTextColor(channelFocusedTextColor);
+    }
+
     /**
      * 检查adapter是否是defaultStyleAdapter
      *
@@ -729,86 +1052,439 @@ public class ChannelView extends ScrollView {
                 }
             };
         }
-        LinkedHashMap<String, List<Channel>> channelData = styleAdapter.getChannelData();
-        if (channelData != null) {
+        if (styleAdapter instanceof PagedStyleAdapter) {
+            //分页加载时板块和频道在滑动过程中按页请求
+            pagedStyleAdapter = (PagedStyleAdapter) styleAdapter;
             channelContents.clear();
-            Set<String> keySet = channelData.keySet();
-            for (String key : keySet) {
-                addPlate(key, channelData.get(key));
+            myChannelCode = new int[0];
+            plateTotalCount = -1;
+        } else {
+            LinkedHashMap<String, List<Channel>> channelData;
+            if (channelRepository != null) {
+                channelData = channelRepository.getChannelData();
+                channelRepository.registerObserver(repositoryObserver);
+            } else if (asyncChannelData != null) {
+                channelData = asyncChannelData;
+                asyncChannelData = null;
+            } else {
+                channelData = styleAdapter.getChannelData();
+            }
+            if (channelData != null) {
+                channelContents.clear();
+                Set<String> keySet = channelData.keySet();
+                for (String key : keySet) {
+                    addPlate(key, channelData.get(key));
+                }
+            }
+            //如果只有一组频道，默认再加上一组
+            if (channelContents.size() == 1) {
+                channelContents.put("推荐频道", null);
             }
-        }
-        //如果只有一组频道，默认再加上一组
-        if (channelContents.size() == 1) {
-            channelContents.put("推荐频道", null);
         }
         if (checkDefaultAdapter()) {
             defaultStyleAdapter = (DefaultStyleAdapter) styleAdapter;
-            defaultStyleAdapter.setChannelTextSize(channelTextSize);
-            defaultStyleAdapter.setChannelNormalBackground(channelNormalBackground);
-            defaultStyleAdapter.setChannelFocusedBackground(channelFocusedBackground);
-            defaultStyleAdapter.setChannelEditBackground(channelEditBackground);
-            defaultStyleAdapter.setChannelFixedBackground(channelFixedBackground);
-            defaultStyleAdapter.setChannelNormalTextColor(channelNormalTextColor);
-            defaultStyleAdapter.setChannelFixedTextColor(channelFixedTextColor);
-            defaultStyleAdapter.setChannelFocusedTextColor(channelFocusedTextColor);
+            setDefaultAdapterStyle();
         }
         if (channelLayout == null) {
             channelLayout = new ChannelLayout(mContext);
             addView(channelLayout);
         }
+        loadNextPage();
     }
 
     /**
-     * 获取我的频道
-     *
-     * @return
+     * 分页适配器
      */
-    public List<Channel> getMyChannel() {
-        List<Channel> channels = new ArrayList<>();
-        if (channelLayout != null && channelLayout.channelGroups.size() > 0 && channelLayout.channelGroups.get(0) != null) {
-            for (View view : channelLayout.channelGroups.get(0)) {
-                channels.add(getChannelAttr(view).channel);
-            }
+    private PagedStyleAdapter pagedStyleAdapter;
+
+    /**
+     * 分页加载时的板块总数，-1表示还未请求到板块
+     */
+    private int plateTotalCount;
+
+    /**
+     * 是否正在请求分页数据
+     */
+    private boolean isPageLoading;
+
+    private Runnable loadNextPageRunnable = new Runnable() {
+        @Override
+        public void run() {
+            loadNextPage();
         }
-        return channels;
-    }
+    };
 
     /**
-     * 获取其他频道
-     *
-     * @return
+     * 请求下一页数据，我的频道会连续加载完成，其它板块在滑动到距离已加载内容底部一屏以内时才请求
      */
-    public List<List<Channel>> getOtherChannel() {
-        List<List<Channel>> otherChannels = new ArrayList<>();
-        if (channelLayout != null && channelLayout.channelGroups.size() > 0) {
-            int len = channelLayout.channelGroups.size();
-            for (int i = 1; i < len; i++) {
-                List<Channel> channels = new ArrayList<>();
-                for (View view : channelLayout.channelGroups.get(i)) {
-                    channels.add(getChannelAttr(view).channel);
+    private void loadNextPage() {
+        if (pagedStyleAdapter == null || channelLayout == null || isPageLoading || channelLayout.needLayoutViews.size() > 0) {
+            return;
+        }
+        final int pendingGroup = channelLayout.getPendingGroup();
+        if (pendingGroup != 0 && getScrollY() + getHeight() * 2 < channelLayout.getLoadedBottom()) {
+            return;
+        }
+        final int pageSize = Math.max(pagedStyleAdapter.getPageSize(), 1);
+        if (pendingGroup >= 0) {
+            isPageLoading = true;
+            PlatePage platePage = channelLayout.platePages.get(pendingGroup);
+            pagedStyleAdapter.loadChannels(pendingGroup, platePage.plateName, platePage.loadedCount, pageSize, new PagedStyleAdapter.ChannelCallback() {
+                @Override
+                public void onChannelsLoaded(final List<Channel> channels) {
+                    runOnMainThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            isPageLoading = false;
+                            List<Channel> page = channels == null ? new ArrayList<Channel>() : channels;
+                            channelLayout.appendChannels(pendingGroup, page, page.size() < pageSize);
+                        }
+                    });
                 }
-                otherChannels.add(channels);
-            }
+            });
+        } else if (plateTotalCount < 0 || channelLayout.platePages.size() < plateTotalCount) {
+            isPageLoading = true;
+            pagedStyleAdapter.loadPlates(channelLayout.platePages.size(), pageSize, new PagedStyleAdapter.PlateCallback() {
+                @Override
+                public void onPlatesLoaded(final LinkedHashMap<String, Integer> plates, final int totalCount) {
+                    runOnMainThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            isPageLoading = false;
+                            LinkedHashMap<String, Integer> page = plates == null ? new LinkedHashMap<String, Integer>() : plates;
+                            plateTotalCount = Math.max(totalCount, channelLayout.platePages.size() + page.size());
+                            if (page.size() == 0) {
+                                //没有更多板块
+                                plateTotalCount = channelLayout.platePages.size();
+                            }
+                            //如果只有一组频道，默认再加上一组
+                            if (plateTotalCount == 1) {
+                                page.put("推荐频道", 0);
+                                plateTotalCount = 2;
+                            }
+                            channelLayout.appendPlates(page);
+                        }
+                    });
+                }
+            });
         }
-        return otherChannels;
     }
 
-    private int[] myChannelCode;
+    private void runOnMainThread(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            post(runnable);
+        }
+    }
+
+    @Override
+    protected void onScrollChanged(int l, int t, int oldl, int oldt) {
+        super.onScrollChanged(l, t, oldl, oldt);
+        loadNextPage();
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        super.onLayout(changed, l, t, r, b);
+        if (pendingScrollPlate >= 0) {
+            scrollToChannel(pendingScrollPlate, pendingScrollIndex);
+        }
+        if (pagedStyleAdapter != null) {
+            //布局完成后已加载内容的坐标才确定，此时再判断是否需要请求下一页
+            removeCallbacks(loadNextPageRunnable);
+            post(loadNextPageRunnable);
+        }
+        if (pendingIconViews.size() > 0) {
+            //布局完成后频道尺寸和坐标才确定，此时再按可见性加载图标
+            removeCallbacks(loadIconsRunnable);
+            post(loadIconsRunnable);
+        }
+    }
+
+    private IconCache iconCache;
 
     /**
-     * 频道序列是否发生变化
+     * 等待加载图标的频道
+     */
+    private List<View> pendingIconViews = new ArrayList<>();
+
+    private Runnable loadIconsRunnable = new Runnable() {
+        @Override
+        public void run() {
+            loadIcons();
+        }
+    };
+
+    /**
+     * 设置共享的图标缓存，适配器实现了{@link IconStyleAdapter}时才会使用，不设置时每个ChannelView使用自己的缓存
      *
-     * @return
+     * @param iconCache
      */
-    public boolean isChange() {
-        if (channelLayout != null && channelLayout.channelGroups.size() > 0 && channelLayout.channelGroups.get(0) != null) {
-            int[] nowMyChannelCode = new int[channelLayout.channelGroups.get(0).size()];
-            for (int i = 0; i < channelLayout.channelGroups.get(0).size(); i++) {
-                ChannelAttr channelAttr = getChannelAttr(channelLayout.channelGroups.get(0).get(i));
-                nowMyChannelCode[i] = channelAttr.channel.code;
-            }
-            if (myChannelCode.length == nowMyChannelCode.length) {
-                for (int i = 0; i < myChannelCode.length; i++) {
+    public void setIconCache(IconCache iconCache) {
+        this.iconCache = iconCache;
+    }
+
+    /**
+     * 过渡动画期间是否使用硬件层
+     */
+    private boolean isTransitionLayerEnabled;
+
+    /**
+     * 同时使用硬件层的View数量上限
+     */
+    private int maxTransitionLayers = DEFAULT_MAX_TRANSITION_LAYERS;
+
+    private static final int DEFAULT_MAX_TRANSITION_LAYERS = 24;
+
+    /**
+     * 根据系统动画设置和设备内存自动选择是否使用快速模式
+     */
+    public static final int FAST_MODE_AUTO = 0x00;
+
+    /**
+     * 使用快速模式，编辑时不使用动画，直接移动到最终位置
+     */
+    public static final int FAST_MODE_ON = 0x01;
+
+    /**
+     * 不使用快速模式
+     */
+    public static final int FAST_MODE_OFF = 0x02;
+
+    private int fastMode = FAST_MODE_AUTO;
+
+    /**
+     * 是否是低内存设备
+     */
+    private boolean isLowRamDevice;
+
+    /**
+     * 设置快速模式，快速模式下添加、删除、排序等编辑不使用动画，频道坐标和ChannelLayout高度直接设置为最终值。
+     * 默认为{@link #FAST_MODE_AUTO}，系统关闭了动画或者是低内存设备时使用快速模式
+     *
+     * @param fastMode {@link #FAST_MODE_AUTO}、{@link #FAST_MODE_ON}或{@link #FAST_MODE_OFF}
+     */
+    public void setFastMode(int fastMode) {
+        this.fastMode = fastMode;
+    }
+
+    /**
+     * 是否使用快速模式
+     */
+    private boolean isFastMode() {
+        if (fastMode != FAST_MODE_AUTO) {
+            return fastMode == FAST_MODE_ON;
+        }
+        if (isLowRamDevice) {
+            return true;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            return !ValueAnimator.areAnimatorsEnabled();
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(mContext.getContentResolver(), Settings.Global.ANIMATOR_DURATION_SCALE, 1f) == 0;
+        }
+        return false;
+    }
+
+    /**
+     * 是否使用快照拖拽频道
+     */
+    private boolean isDragSnapshotEnabled;
+
+    /**
+     * 设置拖拽时是否只移动浮层中的频道快照，频道本身停在所在的位置直到松手，拖拽时只重绘快照所在的区域。
+     * 需要API 18以上，以下的版本仍然直接移动频道
+     *
+     * @param dragSnapshotEnabled
+     */
+    public void setDragSnapshotEnabled(boolean dragSnapshotEnabled) {
+        this.isDragSnapshotEnabled = dragSnapshotEnabled;
+    }
+
+    /**
+     * 是否分批创建频道
+     */
+    private boolean isStagedBuildEnabled;
+
+    /**
+     * 设置是否分批创建频道，需要在setStyleAdapter之前调用。
+     * 开启后首帧只创建我的频道和第一屏内的频道，其它频道先按数量预留高度，之后每帧创建一批
+     *
+     * @param stagedBuildEnabled
+     */
+    public void setStagedBuildEnabled(boolean stagedBuildEnabled) {
+        this.isStagedBuildEnabled = stagedBuildEnabled;
+    }
+
+    /**
+     * 同时进行的动画数量上限
+     */
+    private int maxTransitionAnimators = DEFAULT_MAX_TRANSITION_ANIMATORS;
+
+    private static final int DEFAULT_MAX_TRANSITION_ANIMATORS = 64;
+
+    /**
+     * 设置添加、删除、排序等过渡动画期间是否将移动的频道提升为硬件层，频道布局复杂时可减少动画过程中的重绘
+     *
+     * @param transitionLayerEnabled
+     */
+    public void setTransitionLayerEnabled(boolean transitionLayerEnabled) {
+        this.isTransitionLayerEnabled = transitionLayerEnabled;
+    }
+
+    /**
+     * 设置同时使用硬件层的频道数量上限，限制占用的显存，默认24
+     *
+     * @param maxTransitionLayers
+     */
+    public void setMaxTransitionLayers(int maxTransitionLayers) {
+        this.maxTransitionLayers = Math.max(maxTransitionLayers, 0);
+    }
+
+    /**
+     * 设置同时进行的动画数量上限，默认64，超出的以及不在可见区域附近的频道直接移动到目标位置
+     *
+     * @param maxTransitionAnimators
+     */
+    public void setMaxTransitionAnimators(int maxTransitionAnimators) {
+        this.maxTransitionAnimators = Math.max(maxTransitionAnimators, 0);
+    }
+
+    /**
+     * 加载等待中的图标，先加载可见的频道，再从上到下加载其它频道
+     */
+    private void loadIcons() {
+        if (!(styleAdapter instanceof IconStyleAdapter) || channelLayout == null || channelWidth <= 0) {
+            pendingIconViews.clear();
+            return;
+        }
+        if (iconCache == null) {
+            iconCache = new IconCache();
+        }
+        IconStyleAdapter iconStyleAdapter = (IconStyleAdapter) styleAdapter;
+        List<View> views = pendingIconViews;
+        pendingIconViews = new ArrayList<>();
+        int top = getScrollY();
+        int bottom = top + getHeight();
+        for (int pass = 0; pass < 2; pass++) {
+            for (View view : views) {
+                if (!isChannelAttached(view)) {
+                    continue;
+                }
+                //频道坐标是在板块容器中的坐标
+                float y = ((View) view.getParent()).getY() + view.getY();
+                boolean visible = y + view.getHeight() > top && y < bottom;
+                if (visible == (pass == 0)) {
+                    loadIcon(iconStyleAdapter, view);
+                }
+            }
+        }
+    }
+
+    /**
+     * 频道是否还在当前ChannelLayout的板块中
+     */
+    private boolean isChannelAttached(View view) {
+        ViewParent parent = view.getParent();
+        return channelLayout != null && parent != null && parent.getParent() == channelLayout;
+    }
+
+    private void loadIcon(final IconStyleAdapter iconStyleAdapter, final View view) {
+        String iconKey = iconStyleAdapter.getIconKey(getChannelAttr(view).channel.channelName);
+        if (iconKey == null) {
+            return;
+        }
+        Bitmap icon = iconCache.get(iconKey, channelWidth, channelHeight);
+        if (icon != null) {
+            iconStyleAdapter.bindIcon(getViewHolder(view), icon);
+            return;
+        }
+        iconCache.load(iconKey, channelWidth, channelHeight, iconStyleAdapter, new IconCache.Callback() {
+            @Override
+            public void onIconLoaded(String key, Bitmap icon) {
+                //解码期间频道可能已被移除或复用
+                if (icon == null || styleAdapter != iconStyleAdapter || !isChannelAttached(view)) {
+                    return;
+                }
+                if (key.equals(iconStyleAdapter.getIconKey(getChannelAttr(view).channel.channelName))) {
+                    iconStyleAdapter.bindIcon(getViewHolder(view), icon);
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取我的频道
+     *
+     * @return
+     */
+    public List<Channel> getMyChannel() {
+        List<Channel> channels = new ArrayList<>();
+        if (isRecycled) {
+            return getRecycledChannels(0);
+        }
+        if (channelLayout != null && channelLayout.channelGroups.size() > 0 && channelLayout.channelGroups.get(0) != null) {
+            for (View view : channelLayout.channelGroups.get(0)) {
+                channels.add(getChannelAttr(view).channel);
+            }
+        }
+        return channels;
+    }
+
+    /**
+     * 获取其他频道
+     *
+     * @return
+     */
+    public List<List<Channel>> getOtherChannel() {
+        List<List<Channel>> otherChannels = new ArrayList<>();
+        if (isRecycled) {
+            for (int i = 1; i < channelContents.size(); i++) {
+                otherChannels.add(getRecycledChannels(i));
+            }
+            return otherChannels;
+        }
+        if (channelLayout != null && channelLayout.channelGroups.size() > 0) {
+            int len = channelLayout.channelGroups.size();
+            for (int i = 1; i < len; i++) {
+                List<Channel> channels = new ArrayList<>();
+                for (View view : channelLayout.channelGroups.get(i)) {
+                    channels.add(getChannelAttr(view).channel);
+                }
+                channelLayout.addPendingChannels(i, channels);
+                otherChannels.add(channels);
+            }
+        }
+        return otherChannels;
+    }
+
+    private int[] myChannelCode;
+
+    /**
+     * 频道序列是否发生变化
+     *
+     * @return
+     */
+    public boolean isChange() {
+        int[] nowMyChannelCode = null;
+        if (isRecycled) {
+            List<Channel> myChannels = getRecycledChannels(0);
+            nowMyChannelCode = new int[myChannels.size()];
+            for (int i = 0; i < myChannels.size(); i++) {
+                nowMyChannelCode[i] = myChannels.get(i).code;
+            }
+        } else if (channelLayout != null && channelLayout.channelGroups.size() > 0 && channelLayout.channelGroups.get(0) != null) {
+            nowMyChannelCode = new int[channelLayout.channelGroups.get(0).size()];
+            for (int i = 0; i < channelLayout.channelGroups.get(0).size(); i++) {
+                ChannelAttr channelAttr = getChannelAttr(channelLayout.channelGroups.get(0).get(i));
+                nowMyChannelCode[i] = channelAttr.channel.code;
+            }
+        }
+        if (nowMyChannelCode != null) {
+            if (myChannelCode.length == nowMyChannelCode.length) {
+                for (int i = 0; i < myChannelCode.length; i++) {
                     if (myChannelCode[i] != nowMyChannelCode[i]) {
                         return true;
                     }
@@ -820,6 +1496,26 @@ public class ChannelView extends ScrollView {
         return false;
     }
 
+    /**
+     * 频道回收期间从保存的频道数据中获取板块的频道
+     *
+     * @param plate
+     * @return
+     */
+    private List<Channel> getRecycledChannels(int plate) {
+        List<Channel> channels = new ArrayList<>();
+        int j = 0;
+        for (List<Channel> channelContent : channelContents.values()) {
+            if (j++ == plate) {
+                if (channelContent != null) {
+                    channels.addAll(channelContent);
+                }
+                break;
+            }
+        }
+        return channels;
+    }
+
     public interface OnChannelListener {
         /**
          * 正常状态下频道点击
@@ -852,6 +1548,24 @@ public class ChannelView extends ScrollView {
         void channelEditStateItemClick(int position, Channel channel);
     }
 
+    public interface OnChannelListener3 extends OnChannelListener2 {
+        /**
+         * 编辑完成时我的频道的最小变化集合，在channelEditFinish之后回调，可用于增量同步
+         *
+         * @param channelDelta
+         */
+        void channelEditDelta(ChannelDelta channelDelta);
+    }
+
+    public interface OnChannelListener4 extends OnChannelListener3 {
+        /**
+         * 异步获取频道数据失败，占位会继续显示，可以再次调用setStyleAdapter重试
+         *
+         * @param e getChannelData抛出的异常
+         */
+        void channelDataLoadFailed(RuntimeException e);
+    }
+
     /**
      * @param onChannelListener
      * @see ChannelView#setOnChannelListener(OnChannelListener)
@@ -872,6 +1586,9 @@ public class ChannelView extends ScrollView {
 
     @Override
     public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (gestureTrace != null) {
+            gestureTrace.add(GestureTrace.SOURCE_VIEW, ev, -1, -1);
+        }
         int actionMask = ev.getAction() & MotionEvent.ACTION_MASK;
         if (actionMask == MotionEvent.ACTION_POINTER_DOWN) {
             return false;
@@ -879,70 +1596,507 @@ public class ChannelView extends ScrollView {
         return super.dispatchTouchEvent(ev);
     }
 
-    private StyleAdapter styleAdapter;
+    /**
+     * 正在录制的手势，没有录制时为null
+     */
+    private GestureTrace gestureTrace;
 
-    public void setStyleAdapter(StyleAdapter styleAdapter) {
-        if (isInflateData) {
-            return;
+    /**
+     * 开始录制手势，记录之后到达ChannelView和频道的触摸事件以及当前的板块结构、尺寸和滑动位置，需要在数据填充之后调用
+     */
+    public void startGestureTrace() {
+        int[] plateSizes = new int[channelLayout == null ? 0 : channelLayout.channelGroups.size()];
+        for (int j = 0; j < plateSizes.length; j++) {
+            plateSizes[j] = channelLayout.getGroupSize(j);
         }
-        this.styleAdapter = styleAdapter;
-        inflateData();
+        gestureTrace = new GestureTrace(channelColumn, plateSizes, getWidth(), getHeight(), getScrollY());
     }
 
-    private class ChannelLayout extends GridLayout implements OnLongClickListener, OnClickListener, OnTouchListener {
+    /**
+     * 停止录制手势
+     *
+     * @return 录制的手势，没有开始录制时返回null
+     */
+    public GestureTrace stopGestureTrace() {
+        GestureTrace trace = gestureTrace;
+        gestureTrace = null;
+        return trace;
+    }
 
-        /**
-         * 频道最小可拖动距离
-         */
-        private int RANGE = 30;
+    /**
+     * 当前正在进行的动画数量，包括属性动画和弹簧动画，用于手势重放时统计
+     */
+    int getRunningAnimatorCount() {
+        return channelLayout == null ? 0 : channelLayout.getRunningTransitionCount();
+    }
 
-        private final int DURATION_TIME = 200;
+    private StyleAdapter styleAdapter;
 
-        /**
-         * 频道普通点击
-         */
-        private final int NORMAL = 0X00;
+    private ViewHolderPool viewHolderPool;
 
-        /**
-         * 点击删除频道
-         */
-        private final int DELETE = 0x01;
+    private ChannelRepository channelRepository;
 
-        private int channelClickType = NORMAL;
+    /**
+     * 是否正在应用数据仓库的变化，此时不再将变化同步回数据仓库
+     */
+    private boolean isApplyingRepositoryChanges;
 
-        /**
-         * 是否重新布局
-         */
-        private boolean isAgainLayout = true;
+    /**
+     * 从窗口移除期间不再观察数据仓库，重新添加时需要按数据仓库重建
+     */
+    private boolean isRepositoryDetached;
 
-        private AnimatorSet animatorSet = new AnimatorSet();
+    private ChannelRepository.Observer repositoryObserver = new ChannelRepository.Observer() {
+        @Override
+        public void onChannelsChanged(List<ChannelRepository.Change> changes) {
+            applyRepositoryChanges(changes);
+        }
+    };
 
-        /**
-         * 所有频道标题组
-         */
-        private List<View> channelTitleGroups = new ArrayList<>();
+    /**
+     * 设置共享的频道数据仓库，频道数据将从数据仓库中获取，编辑结果会同步到数据仓库，
+     * 其它ChannelView对数据仓库的修改也会增量同步到当前ChannelView。需要在setStyleAdapter之前调用，不支持分页适配器
+     *
+     * @param channelRepository
+     */
+    public void setChannelRepository(ChannelRepository channelRepository) {
+        this.channelRepository = channelRepository;
+    }
 
-        /**
-         * 所有频道组
-         */
-        private List<ArrayList<View>> channelGroups = new ArrayList<>();
+    /**
+     * 增量应用数据仓库的变化，所有变化应用后统一计算一次位置
+     *
+     * @param changes
+     */
+    private void applyRepositoryChanges(List<ChannelRepository.Change> changes) {
+        if (channelLayout == null) {
+            return;
+        }
+        //变化需要对应到频道View，先创建所有等待创建的频道
+        channelLayout.finishStagedBuild();
+        isApplyingRepositoryChanges = true;
+        try {
+            for (ChannelRepository.Change change : changes) {
+                channelLayout.trackMembership(change.channel, change.fromPlate, change.toPlate);
+                if (change.type == ChannelRepository.Change.INSERT) {
+                    channelLayout.insertChannelView(change.toPlate, change.toIndex, change.channel);
+                } else {
+                    View view = channelLayout.findChannelView(change.fromPlate, change.fromIndex, change.channel);
+                    if (view == null) {
+                        continue;
+                    }
+                    if (change.type == ChannelRepository.Change.MOVE) {
+                        channelLayout.moveChannelView(view, change.toPlate, change.toIndex);
+                    } else {
+                        channelLayout.removeChannelView(view);
+                    }
+                }
+            }
+            channelLayout.relayoutChannels();
+        } finally {
+            isApplyingRepositoryChanges = false;
+        }
+    }
 
-        /**
-         * 每组channel的行数
-         */
-        private int[] groupChannelColumns;
+    /**
+     * 频道是否已回收到缓存池中
+     */
+    private boolean isRecycled;
 
-        /**
-         * 所有channel组的高度
-         */
-        private int allChannelGroupsHeight;
+    /**
+     * 移除ChannelLayout时保存的编辑记录、ChannelDelta的起点和编辑状态，重建后恢复
+     */
+    private EditLog savedEditLog;
 
-        private TextView tipEdit, tipFinish, subTitle;
+    private ChannelDeltaTracker savedDeltaTracker;
 
-        /**
-         * 动态高度
-         */
-        private int animateHeight;
+    private boolean savedEditState;
+
+    private void saveLayoutState() {
+        savedEditLog = channelLayout.editLog;
+        savedDeltaTracker = channelLayout.deltaTracker;
+        savedEditState = channelLayout.isEditState;
+    }
+
+    /**
+     * 设置共享的ViewHolder缓存池，需要在setStyleAdapter之前调用
+     *
+     * @param viewHolderPool
+     */
+    public void setViewHolderPool(ViewHolderPool viewHolderPool) {
+        this.viewHolderPool = viewHolderPool;
+    }
+
+    /**
+     * 创建频道的ViewHolder，可复用时优先从缓存池中获取
+     *
+     * @param parent
+     * @param channelName
+     * @return
+     */
+    private ViewHolder obtainViewHolder(ViewGroup parent, String channelName) {
+        if (viewHolderPool != null && styleAdapter instanceof RecyclableStyleAdapter) {
+            ViewHolder holder = viewHolderPool.getRecycledView(styleAdapter.getClass());
+            if (holder != null) {
+                ((RecyclableStyleAdapter) styleAdapter).bindStyleView(holder, channelName);
+                return holder;
+            }
+        }
+        return styleAdapter.createStyleView(parent, channelName);
+    }
+
+    /**
+     * 将所有频道的ViewHolder放回缓存池，并保存当前频道数据，重新添加到窗口时再从缓存池中创建
+     */
+    private void recycleViewHolders() {
+        if (viewHolderPool == null || !(styleAdapter instanceof RecyclableStyleAdapter) || pagedStyleAdapter != null || channelLayout == null) {
+            return;
+        }
+        LinkedHashMap<String, List<Channel>> contents = new LinkedHashMap<>();
+        int j = 0;
+        for (String plateName : channelContents.keySet()) {
+            List<Channel> channels = new ArrayList<>();
+            for (View view : channelLayout.channelGroups.get(j)) {
+                channels.add(getChannelAttr(view).channel);
+                ViewHolder holder = getViewHolder(view);
+                //放回缓存池前重置图标和样式，复用时不会显示旧的内容
+                ((RecyclableStyleAdapter) styleAdapter).recycleStyleView(holder);
+                view.animate().cancel();
+                view.animate().setListener(null);
+                view.setOnClickListener(null);
+                view.setOnLongClickListener(null);
+                view.setOnTouchListener(null);
+                view.setTranslationX(0);
+                view.setTranslationY(0);
+                viewHolderPool.putRecycledView(styleAdapter.getClass(), holder);
+            }
+            channelLayout.addPendingChannels(j, channels);
+            contents.put(plateName, channels);
+            j++;
+        }
+        //频道View放回缓存池后会添加到新的板块中，需要先从板块中移除
+        for (ViewGroup plate : channelLayout.plateViews) {
+            plate.removeAllViews();
+        }
+        channelLayout.removeAllViews();
+        saveLayoutState();
+        removeView(channelLayout);
+        channelLayout = null;
+        channelContents = contents;
+        pendingIconViews.clear();
+        fixedTextView.clear();
+        allTextView.clear();
+        platesTitle.clear();
+        otherSubTitles.clear();
+        isRecycled = true;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (channelRepository != null && isRepositoryDetached) {
+            //移除期间数据仓库可能已经变化，按数据仓库当前数据重建
+            isRepositoryDetached = false;
+            channelRepository.registerObserver(repositoryObserver);
+            channelContents = channelRepository.getChannelData();
+            if (!isRecycled && channelLayout != null) {
+                saveLayoutState();
+                removeView(channelLayout);
+                fixedTextView.clear();
+                allTextView.clear();
+                platesTitle.clear();
+                otherSubTitles.clear();
+                isRecycled = true;
+            }
+        }
+        if (isRecycled) {
+            isRecycled = false;
+            channelLayout = new ChannelLayout(mContext);
+            addView(channelLayout);
+        }
+    }
+
+    /**
+     * 是否被父View临时移除，例如ListView等在布局过程中暂时移除子View，之后会重新添加，此时不回收频道
+     */
+    private boolean isTemporaryDetached;
+
+    @Override
+    public void onStartTemporaryDetach() {
+        super.onStartTemporaryDetach();
+        isTemporaryDetached = true;
+    }
+
+    @Override
+    public void onFinishTemporaryDetach() {
+        super.onFinishTemporaryDetach();
+        isTemporaryDetached = false;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (isTemporaryDetached) {
+            return;
+        }
+        recycleViewHolders();
+        if (channelRepository != null && isInflateData) {
+            channelRepository.unregisterObserver(repositoryObserver);
+            isRepositoryDetached = true;
+        }
+    }
+
+    public void setStyleAdapter(StyleAdapter styleAdapter) {
+        if (isInflateData || isAsyncLoading) {
+            return;
+        }
+        isAsyncLoadFailed = false;
+        this.styleAdapter = styleAdapter;
+        inflateData();
+    }
+
+    /**
+     * 是否正在异步获取频道数据
+     */
+    private boolean isAsyncLoading;
+
+    /**
+     * 异步获取数据失败，继续显示占位
+     */
+    private boolean isAsyncLoadFailed;
+
+    /**
+     * 异步获取到的频道数据
+     */
+    private LinkedHashMap<String, List<Channel>> asyncChannelData;
+
+    /**
+     * 异步获取数据时每个板块占位的频道数量
+     */
+    private int[] placeholderCounts = {8, 8};
+
+    private Paint placeholderPaint;
+
+    private RectF placeholderRect = new RectF();
+
+    /**
+     * 设置适配器，{@link StyleAdapter#getChannelData()}会在executor中执行，获取数据期间显示占位
+     *
+     * @param styleAdapter
+     * @param executor     执行获取数据的线程池
+     */
+    public void setStyleAdapter(final StyleAdapter styleAdapter, Executor executor) {
+        if (isInflateData || isAsyncLoading) {
+            return;
+        }
+        if (executor == null || styleAdapter instanceof PagedStyleAdapter || channelRepository != null) {
+            setStyleAdapter(styleAdapter);
+            return;
+        }
+        isAsyncLoading = true;
+        isAsyncLoadFailed = false;
+        setWillNotDraw(false);
+        invalidate();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                LinkedHashMap<String, List<Channel>> channelData = null;
+                RuntimeException exception = null;
+                try {
+                    channelData = styleAdapter.getChannelData();
+                } catch (RuntimeException e) {
+                    exception = e;
+                }
+                final LinkedHashMap<String, List<Channel>> data = channelData;
+                final RuntimeException error = exception;
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        isAsyncLoading = false;
+                        if (error != null) {
+                            //保留占位，可以再次调用setStyleAdapter重试
+                            isAsyncLoadFailed = true;
+                            if (onChannelListener instanceof OnChannelListener4) {
+                                ((OnChannelListener4) onChannelListener).channelDataLoadFailed(error);
+                            }
+                            return;
+                        }
+                        asyncChannelData = data;
+                        setStyleAdapter(styleAdapter);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 设置异步获取数据时每个板块占位的频道数量，与实际数量一致时数据替换后不会发生跳动
+     *
+     * @param placeholderCounts 依次为每个板块的频道数量
+     */
+    public void setPlaceholderCounts(int... placeholderCounts) {
+        this.placeholderCounts = placeholderCounts;
+        if (isAsyncLoading || isAsyncLoadFailed) {
+            invalidate();
+        }
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        super.dispatchDraw(canvas);
+        if (isAsyncLoading || isAsyncLoadFailed) {
+            drawPlaceholders(canvas);
+        }
+    }
+
+    /**
+     * 按频道的布局规则绘制占位，标题为一段短条，频道为圆角块
+     */
+    private void drawPlaceholders(Canvas canvas) {
+        if (placeholderPaint == null) {
+            placeholderPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        }
+        placeholderPaint.setColor(channelPlaceholderColor);
+        float radius = 4 * density;
+        float cellWidth = (getWidth() - channelVerticalSpacing * (channelColumn - 1) - channelPadding * 2) / (float) channelColumn;
+        float y = 0;
+        for (int count : placeholderCounts) {
+            float titleLeft = channelPadding + platesTitleLeftRightPadding;
+            float titleTop = y + (platesTitleHeight - platesTitleSize) / 2f;
+            placeholderRect.set(titleLeft, titleTop, titleLeft + platesTitleSize * 4, titleTop + platesTitleSize);
+            canvas.drawRoundRect(placeholderRect, radius, radius, placeholderPaint);
+            y += platesTitleHeight;
+            for (int i = 0; i < count; i++) {
+                float left = channelPadding + (i % channelColumn) * (cellWidth + channelVerticalSpacing);
+                float top = y + (i / channelColumn) * (channelHeight + channelHorizontalSpacing);
+                placeholderRect.set(left, top, left + cellWidth, top + channelHeight);
+                canvas.drawRoundRect(placeholderRect, radius, radius, placeholderPaint);
+            }
+            int rows = count % channelColumn == 0 ? count / channelColumn : count / channelColumn + 1;
+            if (rows > 0) {
+                y += channelHeight * rows + (rows - 1) * channelHorizontalSpacing;
+            }
+        }
+    }
+
+    /**
+     * 可以将一个子View显示在最上方的ViewGroup，只改变绘制顺序，不会像bringToFront一样调整子View的顺序并重新布局。
+     * API 21以下触摸事件不按绘制顺序分发，仍然使用bringChildToFront
+     */
+    private abstract static class RaisableLayout extends ViewGroup {
+        /**
+         * 最后绘制的View，显示在其它View的上方
+         */
+        private View topChild;
+
+        /**
+         * topChild的位置，使用前先校验，子View增删后重新查找
+         */
+        private int topChildIndex = -1;
+
+        RaisableLayout(Context context, AttributeSet attrs, int defStyleAttr) {
+            super(context, attrs, defStyleAttr);
+            setChildrenDrawingOrderEnabled(true);
+        }
+
+        void setTopChild(View v) {
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP && v != null && indexOfChild(v) != getChildCount() - 1) {
+                //API 21以下触摸事件不按绘制顺序分发，需要调整子View的顺序，否则重叠部分的触摸会交给下方的View
+                bringChildToFront(v);
+            }
+            if (topChild != v) {
+                topChild = v;
+                invalidate();
+            }
+        }
+
+        @Override
+        protected int getChildDrawingOrder(int childCount, int i) {
+            //触摸事件分发时i从childCount - 1开始，不能只在i == 0时更新
+            if (topChild == null) {
+                topChildIndex = -1;
+            } else if (topChildIndex < 0 || topChildIndex >= childCount || getChildAt(topChildIndex) != topChild) {
+                topChildIndex = indexOfChild(topChild);
+            }
+            if (topChildIndex < 0) {
+                return i;
+            }
+            if (i == childCount - 1) {
+                return topChildIndex;
+            }
+            return i < topChildIndex ? i : i + 1;
+        }
+    }
+
+    private class ChannelLayout extends RaisableLayout implements OnLongClickListener, OnClickListener, OnTouchListener {
+
+        /**
+         * 频道最小可拖动距离
+         */
+        private int RANGE = 30;
+
+        private final int DURATION_TIME = 200;
+
+        /**
+         * 频道普通点击
+         */
+        private final int NORMAL = 0X00;
+
+        /**
+         * 点击删除频道
+         */
+        private final int DELETE = 0x01;
+
+        private int channelClickType = NORMAL;
+
+        /**
+         * 是否还未进行首次布局，首次布局时按板块和频道位置计算所有View的坐标
+         */
+        private boolean isAgainLayout = true;
+
+        /**
+         * 当前布局使用的列数
+         */
+        private int layoutColumn;
+
+        private AnimatorSet animatorSet = new AnimatorSet();
+
+        /**
+         * 所有板块容器
+         */
+        private List<PlateLayout> plateViews = new ArrayList<>();
+
+        /**
+         * 所有频道标题组
+         */
+        private List<View> channelTitleGroups = new ArrayList<>();
+
+        /**
+         * 所有频道组
+         */
+        private List<ChannelGroup<View>> channelGroups = new ArrayList<>();
+
+        /**
+         * 每组channel的行数
+         */
+        private int[] groupChannelColumns;
+
+        /**
+         * 各板块的高度，用于计算板块的y坐标和所有板块的高度
+         */
+        private PlateOffsets plateOffsets = new PlateOffsets();
+
+        /**
+         * 所有板块的高度
+         */
+        private int allPlatesHeight;
+
+        private TextView tipEdit, tipFinish, subTitle;
+
+        /**
+         * 动态高度
+         */
+        private int animateHeight;
 
         /**
          * 是否通过动画改变高度
@@ -964,199 +2118,1052 @@ public class ChannelView extends ScrollView {
          */
         private final int MIN_TIME_INTERVAL = 65;
 
+        /**
+         * 最多保存的编辑记录数量
+         */
+        private final int EDIT_LOG_CAPACITY = 100;
+
+        /**
+         * 拖拽到ChannelView边缘时自动滚动的区域高度(单位为dp)
+         */
+        private final int AUTO_SCROLL_EDGE = 48;
+
+        /**
+         * 自动滚动的最大速度(单位为dp/帧)
+         */
+        private final int AUTO_SCROLL_MAX_SPEED = 12;
+
+        private int autoScrollEdge;
+
+        private int autoScrollMaxSpeed;
+
+        /**
+         * 当前自动滚动速度，正数向下滚动，与手指进入边缘区域的深度成正比
+         */
+        private int autoScrollSpeed;
+
+        /**
+         * 是否已经提交了自动滚动的帧回调
+         */
+        private boolean isAutoScrolling;
+
+        /**
+         * 自动滚动时正在拖拽的频道
+         */
+        private View autoScrollView;
+
+        private int[] viewportLocation = new int[2];
+
+        private Choreographer.FrameCallback autoScrollFrameCallback;
+
+        private Runnable autoScrollRunnable = new Runnable() {
+            @Override
+            public void run() {
+                doAutoScroll();
+            }
+        };
+
         public ChannelLayout(Context context) {
             this(context, null);
         }
 
-        public ChannelLayout(Context context, @Nullable AttributeSet attrs) {
-            this(context, attrs, 0);
+        public ChannelLayout(Context context, @Nullable AttributeSet attrs) {
+            this(context, attrs, 0);
+        }
+
+        public ChannelLayout(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
+            super(context, attrs, defStyleAttr);
+            //拖拽中的频道和换板块后移动中的频道会超出所在的板块容器
+            setClipChildren(false);
+            setClipToPadding(false);
+            init();
+        }
+
+        /**
+         * 将频道显示在最上方，所在的板块容器也要显示在其它板块上方
+         */
+        private void raiseChild(View v) {
+            ViewParent parent = v.getParent();
+            if (parent instanceof PlateLayout) {
+                ((PlateLayout) parent).setTopChild(v);
+                setTopChild((View) parent);
+            }
+        }
+
+        /**
+         * 板块容器，包含板块标题和板块中的所有频道。
+         * 标题和频道的坐标是在板块中的坐标，后面的板块整体移动时只需要移动容器
+         */
+        private class PlateLayout extends RaisableLayout {
+            PlateLayout(Context context) {
+                super(context, null, 0);
+                //拖拽中的频道会超出所在板块
+                setClipChildren(false);
+                setClipToPadding(false);
+            }
+
+            @Override
+            protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+                int width = MeasureSpec.getSize(widthMeasureSpec);
+                int height = 0;
+                for (int i = 0; i < getChildCount(); i++) {
+                    View childAt = getChildAt(i);
+                    if (getChannelAttr(childAt).type == ChannelAttr.TITLE) {
+                        //计算标题View的宽高，高度为platesTitleHeight，与占位和未加载板块预留的高度一致
+                        int titleHeight = childAt.getLayoutParams().height;
+                        childAt.measure(MeasureSpec.makeMeasureSpec(width - channelPadding * 2, MeasureSpec.EXACTLY),
+                                titleHeight >= 0 ? MeasureSpec.makeMeasureSpec(titleHeight, MeasureSpec.EXACTLY) : MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+                        height += childAt.getMeasuredHeight();
+                    } else {
+                        //计算每个频道的宽高
+                        childAt.measure(MeasureSpec.makeMeasureSpec(channelWidth, MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(channelHeight, MeasureSpec.EXACTLY));
+                    }
+                }
+                height += getRowsHeight(groupChannelColumns[getChannelAttr(this).groupIndex]);
+                setMeasuredDimension(width, height);
+            }
+
+            @Override
+            protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+                //所有子View都布局在左上角，通过setX、setY移动到各自的坐标
+                for (int i = 0; i < getChildCount(); i++) {
+                    View childAt = getChildAt(i);
+                    if (childAt.getWidth() > 0 && (childAt.getWidth() != childAt.getMeasuredWidth() || childAt.getHeight() != childAt.getMeasuredHeight())
+                            && styleAdapter instanceof IconStyleAdapter && getChannelAttr(childAt).type == ChannelAttr.CHANNEL) {
+                        //按新的频道尺寸重新解码图标
+                        pendingIconViews.add(childAt);
+                    }
+                    childAt.layout(0, 0, childAt.getMeasuredWidth(), childAt.getMeasuredHeight());
+                }
+            }
+        }
+
+        /**
+         * 上一次测量时的宽度
+         */
+        private int lastWidth;
+
+        /**
+         * 宽度或列数变化后，是否需要重新计算所有View的位置
+         */
+        private boolean isReflow;
+
+        @Override
+        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+            int width = MeasureSpec.getSize(widthMeasureSpec);//ChannelLayout的宽
+            if (lastWidth != 0 && lastWidth != width && !isAgainLayout) {
+                isReflow = true;
+            }
+            lastWidth = width;
+            //计算每个频道的宽
+            channelWidth = (width - channelVerticalSpacing * (channelColumn - 1) - channelPadding * 2) / channelColumn;
+            if (isReflow || isAgainLayout) {
+                //频道尺寸可能变化，所有板块都要重新测量
+                for (int i = 0; i < plateViews.size(); i++) {
+                    plateViews.get(i).forceLayout();
+                }
+            }
+            if (isReflow) {
+                for (int i = 0; i < channelGroups.size(); i++) {
+                    setGroupRows(i, getRows(getGroupSize(i)));
+                }
+            }
+            //只有行数或尺寸变化的板块才会重新测量
+            for (int i = 0; i < plateViews.size(); i++) {
+                PlateLayout plate = plateViews.get(i);
+                plate.measure(MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+                plateOffsets.set(i, plate.getMeasuredHeight());
+            }
+            //不是通过动画改变ChannelLayout的高度
+            if (!isAnimateChangeHeight) {
+                allPlatesHeight = plateOffsets.total();
+                setMeasuredDimension(width, channelPadding * 2 + allPlatesHeight + getUnloadedPlatesHeight());//ChannelLayout的高
+            } else {//通过动画改变ChannelLayout的高度
+                setMeasuredDimension(width, animateHeight);
+            }
+        }
+
+        @Override
+        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+            //板块容器都布局在左上角，通过setY移动到各自的坐标
+            for (int i = 0; i < plateViews.size(); i++) {
+                PlateLayout plate = plateViews.get(i);
+                plate.layout(0, 0, plate.getMeasuredWidth(), plate.getMeasuredHeight());
+            }
+            if (isAgainLayout) {
+                isAgainLayout = false;
+                layoutAll();
+            }
+            if (needLayoutViews.size() > 0) {
+                layoutAppendedViews();
+            }
+            if (isReflow) {
+                isReflow = false;
+                reflowViews();
+            }
+            scheduleStagedBuild();
+        }
+
+        /**
+         * 按当前样式重新设置标题、按键和所有频道，频道样式通过适配器按所处状态重新设置
+         *
+         * @param isLayoutChanged 列数、尺寸或间距是否变化
+         */
+        private void restyle(boolean isLayoutChanged) {
+            if (tipEdit != null) {
+                tipEdit.setBackgroundResource(tipEditBackground);
+                tipEdit.setTextColor(tipEditTextColor);
+                tipEdit.setTextSize(TypedValue.COMPLEX_UNIT_PX, tipEditTextSize);
+            }
+            if (tipFinish != null) {
+                tipFinish.setBackgroundResource(tipFinishBackground);
+                tipFinish.setTextColor(tipFinishTextColor);
+                tipFinish.setTextSize(TypedValue.COMPLEX_UNIT_PX, tipFinishTextSize);
+            }
+            if (subTitle != null) {
+                subTitle.setText(subTitleName);
+                subTitle.setTextColor(subTitleTextColor);
+                subTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, subTitleTextSize);
+                subTitle.setBackgroundResource(subTitleBackground);
+            }
+            for (TextView otherSubTitle : otherSubTitles) {
+                otherSubTitle.setText(otherSubTitleName);
+                otherSubTitle.setTextColor(otherSubTitleTextColor);
+                otherSubTitle.setBackgroundResource(otherSubTitleBackground);
+                otherSubTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, otherSubTitleTextSize);
+            }
+            for (TextView title : platesTitle) {
+                title.setTextSize(TypedValue.COMPLEX_UNIT_PX, platesTitleSize);
+                title.setBackgroundResource(platesTitleBackground);
+                title.setTextColor(platesTitleColor);
+                title.setTypeface(platesTitleBold ? Typeface.DEFAULT_BOLD : Typeface.DEFAULT);
+            }
+            for (int j = 0; j < channelGroups.size(); j++) {
+                ChannelGroup<View> views = channelGroups.get(j);
+                for (int i = 0; i < views.size(); i++) {
+                    View view = views.get(i);
+                    ViewHolder holder = getViewHolder(view);
+                    if (defaultStyleAdapter != null) {
+                        defaultStyleAdapter.setTextSize(view, channelTextSize);
+                    }
+                    if (j == 0 && i < channelFixedCount) {
+                        styleAdapter.setFixedStyle(holder);
+                    } else if (j == 0 && isEditState) {
+                        styleAdapter.setEditStyle(holder);
+                    } else {
+                        styleAdapter.setNormalStyle(holder);
+                    }
+                }
+            }
+            if (!isLayoutChanged) {
+                return;
+            }
+            for (View title : channelTitleGroups) {
+                ChannelLayoutParams layoutParams = (ChannelLayoutParams) title.getLayoutParams();
+                layoutParams.height = platesTitleHeight;
+                layoutParams.leftMargin = channelPadding;
+                title.setPadding(platesTitleLeftRightPadding, 0, platesTitleLeftRightPadding, 0);
+            }
+            if (layoutColumn != channelColumn) {
+                changeColumn();
+            } else {
+                if (isAgainLayout) {
+                    layoutAllByIndex();
+                } else {
+                    isReflow = true;
+                }
+                requestLayout();
+            }
+        }
+
+        /**
+         * 改变列数，已布局的View通过动画移动到新的位置，不会重新创建
+         */
+        private void changeColumn() {
+            layoutColumn = channelColumn;
+            if (isAgainLayout) {
+                //还未进行首次布局，全部按照新的列数直接计算坐标
+                layoutAllByIndex();
+            } else {
+                isReflow = true;
+            }
+            requestLayout();
+        }
+
+        /**
+         * 首次布局前频道数量或列数发生变化，重新计算每个板块的行数，坐标在首次布局时统一计算
+         */
+        private void layoutAllByIndex() {
+            for (int j = 0; j < channelTitleGroups.size(); j++) {
+                setGroupRows(j, getRows(getGroupSize(j)));
+            }
+        }
+
+        /**
+         * 设置板块的行数，行数变化时板块需要重新测量
+         */
+        private void setGroupRows(int j, int rows) {
+            if (groupChannelColumns[j] != rows) {
+                groupChannelColumns[j] = rows;
+                if (j < channelTitleGroups.size()) {
+                    plateViews.get(j).forceLayout();
+                    plateOffsets.set(j, channelTitleGroups.get(j).getMeasuredHeight() + getRowsHeight(rows));
+                }
+            }
+        }
+
+        /**
+         * 按板块当前的频道数量更新行数
+         */
+        private void updateGroupRows(int j) {
+            setGroupRows(j, getRows(getGroupSize(j)));
+        }
+
+        /**
+         * 首次布局，按板块和频道位置依次计算所有View的坐标，只遍历一遍
+         */
+        private void layoutAll() {
+            needLayoutViews.clear();
+            float y = 0;
+            for (int j = 0; j < channelTitleGroups.size(); j++) {
+                layoutAt(plateViews.get(j), 0, y);
+                View title = channelTitleGroups.get(j);
+                layoutAt(title, channelPadding, 0);
+                int channelTop = title.getMeasuredHeight();
+                ChannelGroup<View> channels = channelGroups.get(j);
+                for (int i = 0; i < channels.size(); i++) {
+                    layoutAt(channels.get(i), channelPadding + (i % channelColumn) * (channelWidth + channelVerticalSpacing),
+                            channelTop + (i / channelColumn) * (channelHeight + channelHorizontalSpacing));
+                }
+                y += channelTop + getRowsHeight(groupChannelColumns[j]);
+            }
+        }
+
+        private void layoutAt(View view, float x, float y) {
+            ChannelAttr attr = getChannelAttr(view);
+            attr.coordinate.x = x;
+            attr.coordinate.y = y;
+            view.setX(x);
+            view.setY(y);
+        }
+
+        /**
+         * 频道归属变化后重新计算高度和所有View的位置
+         */
+        private void relayoutChannels() {
+            if (isAgainLayout) {
+                layoutAllByIndex();
+                requestLayout();
+            } else {
+                for (int i = 0; i < channelGroups.size(); i++) {
+                    updateGroupRows(i);
+                }
+                animateChangeLayoutHeight();
+                reflowViews();
+            }
+        }
+
+        /**
+         * 将频道移动到指定板块的指定位置，只修改归属关系，位置由relayoutChannels统一计算
+         *
+         * @param v       频道
+         * @param toGroup 目标板块
+         * @param toIndex 目标位置
+         */
+        private void moveChannelView(View v, int toGroup, int toIndex) {
+            ChannelAttr attr = getChannelAttr(v);
+            channelGroups.get(attr.groupIndex).remove(v);
+            ChannelGroup<View> channels = channelGroups.get(toGroup);
+            channels.add(Math.min(Math.max(toIndex, 0), channels.size()), v);
+            if (attr.groupIndex != 0 && toGroup == 0) {
+                v.setOnLongClickListener(this);
+                v.setOnTouchListener(this);
+                if (isEditState) {
+                    styleAdapter.setEditStyle(getViewHolder(v));
+                }
+            } else if (attr.groupIndex == 0 && toGroup != 0) {
+                v.setOnLongClickListener(null);
+                v.setOnTouchListener(null);
+                styleAdapter.setNormalStyle(getViewHolder(v));
+            }
+            if (attr.groupIndex != toGroup) {
+                attr.groupIndex = toGroup;
+                changePlate(v, toGroup);
+            }
+        }
+
+        /**
+         * 将频道移到目标板块的容器中，保持当前显示的位置不变
+         */
+        private void changePlate(View v, int toGroup) {
+            PlateLayout fromPlate = (PlateLayout) v.getParent();
+            PlateLayout toPlate = plateViews.get(toGroup);
+            if (fromPlate == toPlate) {
+                return;
+            }
+            float x = v.getX() + fromPlate.getX() - toPlate.getX();
+            float y = v.getY() + fromPlate.getY() - toPlate.getY();
+            cancelSpring(v);
+            cancelMoveAnimator(v);
+            fromPlate.removeView(v);
+            toPlate.addView(v);
+            v.setX(x);
+            v.setY(y);
+        }
+
+        /**
+         * 在指定板块的指定位置插入新的频道
+         */
+        private void insertChannelView(int toGroup, int toIndex, Channel channel) {
+            ChannelGroup<View> channels = channelGroups.get(toGroup);
+            View v = addChannel(toGroup, channels.size(), channel);
+            channels.remove(v);
+            channels.add(Math.min(Math.max(toIndex, 0), channels.size()), v);
+            if (toGroup == 0 && isEditState) {
+                styleAdapter.setEditStyle(getViewHolder(v));
+            }
+            needLayoutViews.add(v);
+            requestLayout();
+        }
+
+        /**
+         * 删除频道
+         */
+        private void removeChannelView(View v) {
+            channelGroups.get(getChannelAttr(v).groupIndex).remove(v);
+            allTextView.remove(v);
+            fixedTextView.remove(v);
+            needLayoutViews.remove(v);
+            cancelSpring(v);
+            cancelMoveAnimator(v);
+            plateViews.get(getChannelAttr(v).groupIndex).removeView(v);
+        }
+
+        /**
+         * 查找板块中的频道View
+         */
+        private View findChannelView(int group, int index, Channel channel) {
+            if (group < 0 || group >= channelGroups.size()) {
+                return null;
+            }
+            ChannelGroup<View> channels = channelGroups.get(group);
+            if (index >= 0 && index < channels.size() && getChannelAttr(channels.get(index)).channel == channel) {
+                return channels.get(index);
+            }
+            for (View view : channels) {
+                if (getChannelAttr(view).channel == channel) {
+                    return view;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * 编辑记录，用于撤销和重做
+         */
+        private EditLog editLog = new EditLog(EDIT_LOG_CAPACITY);
+
+        /**
+         * 本次拖拽是否已经产生了编辑记录，同一次拖拽中的多次排序会合并为一条
+         */
+        private boolean isDragRecorded;
+
+        /**
+         * 是否正在撤销或重做
+         */
+        private boolean isUndoRedo;
+
+        /**
+         * 撤销或重做一条编辑记录，作为一次增量移动执行
+         *
+         * @param isUndo
+         * @return
+         */
+        private boolean undoOrRedo(boolean isUndo) {
+            if (isAccessDrag || (isUndo ? !editLog.canUndo() : !editLog.canRedo())) {
+                return false;
+            }
+            int slot = isUndo ? editLog.undo() : editLog.redo();
+            Channel channel = editLog.getChannel(slot);
+            int fromGroup = isUndo ? editLog.getToGroup(slot) : editLog.getFromGroup(slot);
+            int fromIndex = isUndo ? editLog.getToIndex(slot) : editLog.getFromIndex(slot);
+            int toGroup = isUndo ? editLog.getFromGroup(slot) : editLog.getToGroup(slot);
+            int toIndex = isUndo ? editLog.getFromIndex(slot) : editLog.getToIndex(slot);
+            View view = findChannelView(fromGroup, fromIndex, channel);
+            if (view == null) {
+                return false;
+            }
+            fromIndex = channelGroups.get(fromGroup).indexOf(view);
+            isUndoRedo = true;
+            moveChannelView(view, toGroup, toIndex);
+            relayoutChannels();
+            onChannelMoved(channel, fromGroup, fromIndex, toGroup, channelGroups.get(toGroup).indexOf(view));
+            isUndoRedo = false;
+            return true;
+        }
+
+        /**
+         * 记录本次编辑中我的频道的变化，用于计算ChannelDelta
+         */
+        private ChannelDeltaTracker deltaTracker = new ChannelDeltaTracker();
+
+        /**
+         * 记录频道是否加入或移出我的频道
+         *
+         * @param fromGroup 原板块，新插入的频道为-1
+         * @param toGroup   目标板块，删除的频道为-1
+         */
+        private void trackMembership(Channel channel, int fromGroup, int toGroup) {
+            if (fromGroup != 0 && toGroup == 0) {
+                deltaTracker.onAdd(channel);
+            } else if (fromGroup == 0 && toGroup != 0) {
+                deltaTracker.onRemove(channel);
+            }
+        }
+
+        /**
+         * 频道从一个板块位置移动到另一个板块位置后调用
+         */
+        private void onChannelMoved(Channel channel, int fromGroup, int fromIndex, int toGroup, int toIndex) {
+            trackMembership(channel, fromGroup, toGroup);
+            if (!isApplyingRepositoryChanges && !isUndoRedo) {
+                //拖回原来的位置时记录被删除，之后的移动不能再合并到前面的记录中
+                isDragRecorded = editLog.record(channel, fromGroup, fromIndex, toGroup, toIndex, isAccessDrag && isDragRecorded) && isAccessDrag;
+            }
+            if (channelRepository != null && !isApplyingRepositoryChanges) {
+                if (isAccessDrag && fromGroup == 0 && toGroup == 0) {
+                    //拖拽中的排序在拖拽结束时合并为一次移动同步到数据仓库，逐帧排序时不产生数据仓库的变化
+                    if (dragMoveView == null) {
+                        dragMoveView = findChannelView(0, toIndex, channel);
+                        dragMoveFromIndex = fromIndex;
+                    }
+                } else {
+                    channelRepository.moveChannel(channel, fromGroup, fromIndex, toGroup, toIndex, repositoryObserver);
+                }
+            }
+        }
+
+        /**
+         * 拖拽中已经排序、还未同步到数据仓库的频道，以及它在拖拽开始时的位置
+         */
+        private View dragMoveView;
+
+        private int dragMoveFromIndex;
+
+        /**
+         * 拖拽结束时将这次拖拽的排序作为一次移动同步到数据仓库
+         */
+        private void syncDragMove() {
+            if (dragMoveView == null) {
+                return;
+            }
+            View view = dragMoveView;
+            dragMoveView = null;
+            int toIndex = channelGroups.get(0).indexOf(view);
+            if (channelRepository != null && toIndex >= 0 && toIndex != dragMoveFromIndex) {
+                channelRepository.moveChannel(getChannelAttr(view).channel, 0, dragMoveFromIndex, 0, toIndex, repositoryObserver);
+            }
+        }
+
+        /**
+         * 根据板块和频道位置重新计算所有View的坐标，并通过动画移动过去
+         */
+        private void reflowViews() {
+            float y = 0;
+            for (int j = 0; j < channelTitleGroups.size(); j++) {
+                moveTo(plateViews.get(j), 0, y);
+                View title = channelTitleGroups.get(j);
+                moveTo(title, channelPadding, 0);
+                int channelTop = title.getMeasuredHeight();
+                ChannelGroup<View> channels = channelGroups.get(j);
+                for (int i = 0; i < channels.size(); i++) {
+                    moveTo(channels.get(i), channelPadding + (i % channelColumn) * (channelWidth + channelVerticalSpacing),
+                            channelTop + (i / channelColumn) * (channelHeight + channelHorizontalSpacing));
+                }
+                y += channelTop + getRowsHeight(groupChannelColumns[j]);
+            }
+        }
+
+        private void moveTo(View view, float x, float y) {
+            ChannelAttr attr = getChannelAttr(view);
+            if (attr.coordinate.x != x || attr.coordinate.y != y) {
+                attr.coordinate = new PointF(x, y);
+                animateMove(view, x, y);
+            }
+        }
+
+        private void init() {
+            RANGE = (int) (density * RANGE + 0.5f);
+            autoScrollEdge = (int) (density * AUTO_SCROLL_EDGE + 0.5f);
+            autoScrollMaxSpeed = (int) (density * AUTO_SCROLL_MAX_SPEED + 0.5f);
+            layoutColumn = channelColumn;
+            addChannelView();
+            if (savedDeltaTracker != null) {
+                //回收后重建，继续使用原来的编辑记录和ChannelDelta起点
+                editLog = savedEditLog;
+                deltaTracker = savedDeltaTracker;
+                savedEditLog = null;
+                savedDeltaTracker = null;
+                if (savedEditState && channelGroups.size() > 0) {
+                    edit();
+                }
+                savedEditState = false;
+                return;
+            }
+            List<Channel> myChannels = new ArrayList<>();
+            if (channelGroups.size() > 0) {
+                for (View view : channelGroups.get(0)) {
+                    myChannels.add(getChannelAttr(view).channel);
+                }
+            }
+            deltaTracker.reset(myChannels);
+        }
+
+        /**
+         * 设置频道View
+         */
+        private void addChannelView() {
+            if (channelContents != null) {
+                groupChannelColumns = new int[channelContents.size()];
+                boolean isStaged = isStagedBuildEnabled && pagedStyleAdapter == null;
+                //分批创建时首帧只创建第一屏内的频道，按屏幕高度估算
+                int firstScreenHeight = getResources().getDisplayMetrics().heightPixels;
+                int y = 0;
+                int j = 0;
+                for (String aKeySet : channelContents.keySet()) {//遍历key值，设置标题名称
+                    List<Channel> channelContent = channelContents.get(aKeySet);
+                    if (j == 0 && channelFixedCount > channelContent.size()) {
+                        throw new RuntimeException("固定频道数量不能大于已选频道数量");
+                    }
+                    groupChannelColumns[j] = getRows(channelContent.size());
+                    addPlateTitle(j, aKeySet);
+                    ChannelGroup<View> channelGroup = new ChannelGroup<>();
+                    channelGroups.add(channelGroup);
+                    int buildCount = channelContent.size();
+                    if (isStaged) {
+                        y += platesTitleHeight;
+                        if (j > 0) {
+                            int visibleRows = y >= firstScreenHeight ? 0 : (firstScreenHeight - y) / (channelHeight + channelHorizontalSpacing) + 1;
+                            buildCount = Math.min(buildCount, visibleRows * channelColumn);
+                        }
+                        y += getRowsHeight(groupChannelColumns[j]);
+                        //未创建的频道与分页加载一样作为预留的占位
+                        PlatePage platePage = new PlatePage();
+                        platePage.plateName = aKeySet;
+                        platePage.totalCount = channelContent.size();
+                        platePage.loadedCount = buildCount;
+                        platePages.add(platePage);
+                    }
+                    for (int i = 0; i < buildCount; i++) {//遍历value中的频道
+                        addChannel(j, i, channelContent.get(i));
+                    }
+                    j++;
+                }
+                isStagedBuilding = isStaged && getPendingGroup() >= 0;
+            }
+        }
+
+        /**
+         * 添加板块标题
+         *
+         * @param j        板块位置
+         * @param plateName 板块名称
+         * @return
+         */
+        private View addPlateTitle(int j, String plateName) {
+            ChannelAttr plateAttr = new ChannelAttr();
+            plateAttr.type = ChannelAttr.PLATE;
+            plateAttr.groupIndex = j;
+            plateAttr.coordinate = new PointF();
+            ChannelLayoutParams plateParams = new ChannelLayoutParams();
+            plateParams.mChannelAttr = plateAttr;
+            PlateLayout plate = new PlateLayout(mContext);
+            addView(plate, plateParams);
+            plateViews.add(plate);
+            //标题高度在测量后更新
+            plateOffsets.append(getRowsHeight(groupChannelColumns[j]));
+            ChannelLayoutParams layoutParams = new ChannelLayoutParams();
+            View view = LayoutInflater.from(mContext).inflate(R.layout.cgl_my_channel, null);
+            TextView otherSubTitle = view.findViewById(R.id.tv_sub_title);
+            if (j == 0) {
+                tipEdit = view.findViewById(R.id.tv_tip_edit);
+                tipEdit.setVisibility(VISIBLE);
+                tipEdit.setOnClickListener(this);
+                tipEdit.setBackgroundResource(tipEditBackground);
+                tipEdit.setTextColor(tipEditTextColor);
+                tipEdit.setTextSize(TypedValue.COMPLEX_UNIT_PX, tipEditTextSize);
+                tipFinish = view.findViewById(R.id.tv_tip_finish);
+                tipFinish.setVisibility(INVISIBLE);
+                tipFinish.setOnClickListener(this);
+                tipFinish.setBackgroundResource(tipFinishBackground);
+                tipFinish.setTextColor(tipFinishTextColor);
+                tipFinish.setTextSize(TypedValue.COMPLEX_UNIT_PX, tipFinishTextSize);
+                subTitle = otherSubTitle;
+                subTitle.setText(subTitleName);
+                subTitle.setTextColor(subTitleTextColor);
+                subTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, subTitleTextSize);
+                subTitle.setBackgroundResource(subTitleBackground);
+            } else {
+                otherSubTitle.setText(otherSubTitleName);
+                otherSubTitle.setTextColor(otherSubTitleTextColor);
+                otherSubTitle.setBackgroundResource(otherSubTitleBackground);
+                otherSubTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, otherSubTitleTextSize);
+                otherSubTitles.add(otherSubTitle);
+            }
+            ChannelAttr channelTitleAttr = new ChannelAttr();
+            channelTitleAttr.type = ChannelAttr.TITLE;
+            channelTitleAttr.groupIndex = j;
+            channelTitleAttr.coordinate = new PointF();
+            TextView tvTitle = view.findViewById(R.id.tv_title);
+            tvTitle.setText(plateName);
+            tvTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, platesTitleSize);
+            tvTitle.setBackgroundResource(platesTitleBackground);
+            tvTitle.setTextColor(platesTitleColor);
+            if (platesTitleBold) {
+                tvTitle.setTypeface(Typeface.DEFAULT_BOLD);
+            }
+            platesTitle.add(tvTitle);
+            layoutParams.height = platesTitleHeight;
+            layoutParams.leftMargin = channelPadding;
+            //为标题View添加一个ChannelAttr属性
+            layoutParams.mChannelAttr = channelTitleAttr;
+            view.setPadding(platesTitleLeftRightPadding, 0, platesTitleLeftRightPadding, 0);
+            plate.addView(view, layoutParams);
+            channelTitleGroups.add(view);
+            return view;
+        }
+
+        /**
+         * 添加频道
+         *
+         * @param j       板块位置
+         * @param i       频道在板块中的位置
+         * @param channel 频道
+         * @return
+         */
+        private View addChannel(int j, int i, Channel channel) {
+            ViewHolder holder = obtainViewHolder(this, channel.channelName);
+            View channelView = holder.itemView;
+            if (channelView == null) {
+                throw new RuntimeException("You must set an adapter for the channel.");
+            }
+            ChannelAttr channelAttr = new ChannelAttr();
+            channelAttr.type = ChannelAttr.CHANNEL;
+            channelAttr.groupIndex = j;
+            channelAttr.coordinate = new PointF();
+            channelAttr.channel = channel;
+            if (j == 0) {
+                if (i < channelFixedCount) {
+                    styleAdapter.setFixedStyle(holder);
+                    fixedTextView.add(channelView);
+                } else {
+                    channelView.setOnTouchListener(this);
+                    channelView.setOnLongClickListener(this);
+                    styleAdapter.setNormalStyle(holder);
+                    allTextView.add(channelView);
+                }
+            } else {
+                styleAdapter.setNormalStyle(holder);
+                allTextView.add(channelView);
+            }
+            channelView.setOnClickListener(this);
+            ChannelLayoutParams params = new ChannelLayoutParams();
+            params.mChannelAttr = channelAttr;
+            params.mViewHolder = holder;
+            plateViews.get(j).addView(channelView, params);
+            channelGroups.get(j).add(channelView);
+            if (styleAdapter instanceof IconStyleAdapter) {
+                pendingIconViews.add(channelView);
+            }
+            return channelView;
+        }
+
+        /**
+         * 分页加载时各板块的加载状态
+         */
+        private List<PlatePage> platePages = new ArrayList<>();
+
+        /**
+         * 分页追加后还未布局的View
+         */
+        private List<View> needLayoutViews = new ArrayList<>();
+
+        /**
+         * 追加一页板块，板块中的频道先按数量预留占位
+         *
+         * @param plates
+         */
+        private void appendPlates(LinkedHashMap<String, Integer> plates) {
+            for (String plateName : plates.keySet()) {
+                Integer count = plates.get(plateName);
+                int j = channelGroups.size();
+                PlatePage platePage = new PlatePage();
+                platePage.plateName = plateName;
+                platePage.totalCount = count == null ? 0 : Math.max(count, 0);
+                platePages.add(platePage);
+                channelContents.put(plateName, new ArrayList<Channel>());
+                groupChannelColumns = Arrays.copyOf(groupChannelColumns, j + 1);
+                groupChannelColumns[j] = getRows(platePage.totalCount);
+                needLayoutViews.add(addPlateTitle(j, plateName));
+                channelGroups.add(new ChannelGroup<>());
+            }
+            requestLayout();
+        }
+
+        /**
+         * 在板块尾部追加一页频道，填充预留的占位
+         *
+         * @param j        板块位置
+         * @param channels 本页频道
+         * @param isFinish 板块是否已加载完
+         */
+        private void appendChannels(int j, List<Channel> channels, boolean isFinish) {
+            PlatePage platePage = platePages.get(j);
+            ChannelGroup<View> channelGroup = channelGroups.get(j);
+            List<Channel> channelContent = channelContents.get(platePage.plateName);
+            for (Channel channel : channels) {
+                if (j == 0) {
+                    channel.code = platePage.loadedCount;
+                    myChannelCode = Arrays.copyOf(myChannelCode, myChannelCode.length + 1);
+                    myChannelCode[myChannelCode.length - 1] = channel.code;
+                    deltaTracker.append(channel);
+                } else {
+                    channel.channelBelong = j;
+                }
+                if (channelContent != null) {
+                    channelContent.add(channel);
+                }
+                platePage.loadedCount++;
+                needLayoutViews.add(addChannel(j, channelGroup.size(), channel));
+            }
+            if (isFinish) {
+                platePage.totalCount = platePage.loadedCount;
+                if (j == 0 && channelFixedCount > channelGroup.size()) {
+                    throw new RuntimeException("固定频道数量不能大于已选频道数量");
+                }
+            }
+            //实际数量与预留数量不一致时，后面的板块跟着移动
+            int rows = getRows(getGroupSize(j));
+            if (rows != groupChannelColumns[j]) {
+                viewMove(j + 1, getRowsHeight(rows) - getRowsHeight(groupChannelColumns[j]));
+                setGroupRows(j, rows);
+            }
+            requestLayout();
+        }
+
+        /**
+         * 对分页追加的View进行布局，坐标由板块与频道位置直接计算
+         */
+        private void layoutAppendedViews() {
+            for (View view : needLayoutViews) {
+                ChannelAttr attr = getChannelAttr(view);
+                if (attr.type == ChannelAttr.TITLE) {
+                    int j = attr.groupIndex;
+                    float y = getPlateTop(j);
+                    PlateLayout plate = plateViews.get(j);
+                    getChannelAttr(plate).coordinate = new PointF(0, y);
+                    plate.setY(y);
+                    attr.coordinate = new PointF(channelPadding, 0);
+                } else {
+                    View title = channelTitleGroups.get(attr.groupIndex);
+                    int i = channelGroups.get(attr.groupIndex).indexOf(view);
+                    attr.coordinate = new PointF(channelPadding + (i % channelColumn) * (channelWidth + channelVerticalSpacing),
+                            title.getMeasuredHeight() + (i / channelColumn) * (channelHeight + channelHorizontalSpacing));
+                }
+                view.setX(attr.coordinate.x);
+                view.setY(attr.coordinate.y);
+            }
+            needLayoutViews.clear();
+        }
+
+        /**
+         * 分批创建时每帧最多创建的频道数量
+         */
+        private final int STAGED_BATCH_SIZE = 16;
+
+        /**
+         * 是否还有分批创建时等待创建的频道
+         */
+        private boolean isStagedBuilding;
+
+        private boolean isStagedBuildScheduled;
+
+        private Choreographer.FrameCallback stagedBuildFrameCallback;
+
+        private Runnable stagedBuildRunnable = new Runnable() {
+            @Override
+            public void run() {
+                isStagedBuildScheduled = false;
+                buildStagedChannels(STAGED_BATCH_SIZE);
+            }
+        };
+
+        /**
+         * 提交下一帧创建一批频道
+         */
+        private void scheduleStagedBuild() {
+            if (!isStagedBuilding || isStagedBuildScheduled || isAgainLayout) {
+                return;
+            }
+            isStagedBuildScheduled = true;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                if (stagedBuildFrameCallback == null) {
+                    stagedBuildFrameCallback = new Choreographer.FrameCallback() {
+                        @Override
+                        public void doFrame(long frameTimeNanos) {
+                            isStagedBuildScheduled = false;
+                            buildStagedChannels(STAGED_BATCH_SIZE);
+                        }
+                    };
+                }
+                Choreographer.getInstance().postFrameCallback(stagedBuildFrameCallback);
+            } else {
+                post(stagedBuildRunnable);
+            }
+        }
+
+        private void cancelStagedBuild() {
+            if (isStagedBuildScheduled) {
+                isStagedBuildScheduled = false;
+                if (stagedBuildFrameCallback != null) {
+                    Choreographer.getInstance().removeFrameCallback(stagedBuildFrameCallback);
+                }
+                removeCallbacks(stagedBuildRunnable);
+            }
+        }
+
+        /**
+         * 按板块顺序创建等待创建的频道，填充预留的占位，行数不变所以其它View不用移动
+         *
+         * @param maxCount 最多创建的数量
+         */
+        private void buildStagedChannels(int maxCount) {
+            int count = 0;
+            int j;
+            while (count < maxCount && (j = getPendingGroup()) >= 0) {
+                PlatePage platePage = platePages.get(j);
+                List<Channel> channelContent = channelContents.get(platePage.plateName);
+                ChannelGroup<View> channelGroup = channelGroups.get(j);
+                while (count < maxCount && platePage.getPendingCount() > 0) {
+                    needLayoutViews.add(addChannel(j, channelGroup.size(), channelContent.get(platePage.loadedCount)));
+                    platePage.loadedCount++;
+                    count++;
+                }
+            }
+            isStagedBuilding = getPendingGroup() >= 0;
+            if (count > 0) {
+                requestLayout();
+            }
+        }
+
+        /**
+         * 立即创建所有等待创建的频道
+         */
+        private void finishStagedBuild() {
+            if (isStagedBuilding) {
+                cancelStagedBuild();
+                buildStagedChannels(Integer.MAX_VALUE);
+            }
+        }
+
+        /**
+         * 将板块中还未创建View的频道按顺序加入列表
+         */
+        private void addPendingChannels(int j, List<Channel> channels) {
+            if (isStagedBuilding && j < platePages.size()) {
+                PlatePage platePage = platePages.get(j);
+                channels.addAll(channelContents.get(platePage.plateName).subList(platePage.loadedCount, platePage.totalCount));
+            }
+        }
+
+        /**
+         * 板块频道数量，包括分页加载时预留的占位
+         *
+         * @param j
+         * @return
+         */
+        private int getGroupSize(int j) {
+            int size = channelGroups.get(j).size();
+            if (j < platePages.size()) {
+                size += platePages.get(j).getPendingCount();
+            }
+            return size;
+        }
+
+        /**
+         * 获取频道数量对应的行数
+         */
+        private int getRows(int count) {
+            return count % channelColumn == 0 ? count / channelColumn : count / channelColumn + 1;
+        }
+
+        /**
+         * 获取行数对应的高度
+         */
+        private int getRowsHeight(int rows) {
+            return rows > 0 ? channelHeight * rows + (rows - 1) * channelHorizontalSpacing : 0;
         }
 
-        public ChannelLayout(Context context, @Nullable AttributeSet attrs, int defStyleAttr) {
-            super(context, attrs, defStyleAttr);
-            init();
+        /**
+         * 还未请求到的板块预留的标题高度
+         */
+        private int getUnloadedPlatesHeight() {
+            if (pagedStyleAdapter == null || plateTotalCount <= platePages.size()) {
+                return 0;
+            }
+            return (plateTotalCount - platePages.size()) * platesTitleHeight;
         }
 
-        @Override
-        protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
-            int width = MeasureSpec.getSize(widthMeasureSpec);//ChannelLayout的宽
-            //不是通过动画改变ChannelLayout的高度
-            if (!isAnimateChangeHeight) {
-                int height = 0;
-                int allChannelTitleHeight = 0;
-                for (int i = 0; i < getChildCount(); i++) {
-                    View childAt = getChildAt(i);
-                    if (getChannelAttr(childAt).type == ChannelAttr.TITLE) {
-                        //计算标题View的宽高
-                        childAt.measure(MeasureSpec.makeMeasureSpec(width - channelPadding * 2, MeasureSpec.EXACTLY), heightMeasureSpec);
-                        allChannelTitleHeight += childAt.getMeasuredHeight();
-                    } else if (getChannelAttr(childAt).type == ChannelAttr.CHANNEL) {
-                        //计算每个频道的宽高
-                        channelWidth = (width - channelVerticalSpacing * (channelColumn - 1) - channelPadding * 2) / channelColumn;
-                        childAt.measure(MeasureSpec.makeMeasureSpec(channelWidth, MeasureSpec.EXACTLY), MeasureSpec.makeMeasureSpec(channelHeight, MeasureSpec.EXACTLY));
-                    }
-                }
-                for (int groupChannelColumn : groupChannelColumns) {
-                    if (groupChannelColumn > 0) {
-                        height += channelHeight * groupChannelColumn + (groupChannelColumn - 1) * channelHorizontalSpacing;
-                    }
+        /**
+         * 获取第一个还有频道未加载的板块
+         *
+         * @return 没有则返回-1
+         */
+        private int getPendingGroup() {
+            for (int j = 0; j < platePages.size(); j++) {
+                if (platePages.get(j).getPendingCount() > 0) {
+                    return j;
                 }
-                allChannelGroupsHeight = height;
-                height += channelPadding * 2 + allChannelTitleHeight;//ChannelLayout的高
-                setMeasuredDimension(width, height);
-            } else {//通过动画改变ChannelLayout的高度
-                setMeasuredDimension(width, animateHeight);
             }
+            return -1;
         }
 
-        @Override
-        protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
-            if (isAgainLayout) {
-                super.onLayout(changed, left, top, right, bottom);
-                for (int i = 0; i < getChildCount(); i++) {
-                    View childAt = getChildAt(i);
-                    ChannelAttr tag = getChannelAttr(childAt);
-                    tag.coordinate.x = childAt.getX();
-                    tag.coordinate.y = childAt.getY();
-                }
-                isAgainLayout = false;
+        /**
+         * 已加载内容的底部
+         */
+        private float getLoadedBottom() {
+            int j = getPendingGroup();
+            int rows;
+            if (j >= 0) {
+                rows = getRows(channelGroups.get(j).size());
+            } else if (channelTitleGroups.size() > 0) {
+                j = channelTitleGroups.size() - 1;
+                rows = groupChannelColumns[j];
+            } else {
+                return 0;
             }
+            return getPlateBottom(j, rows);
         }
 
-        private void init() {
-            RANGE = (int) (density * RANGE + 0.5f);
-            setColumnCount(channelColumn);
-            addChannelView();
+        /**
+         * 板块按指定行数计算的底部
+         */
+        private float getPlateBottom(int j, int rows) {
+            return getPlateTop(j) + channelTitleGroups.get(j).getMeasuredHeight() + getRowsHeight(rows);
         }
 
         /**
-         * 设置频道View
+         * 板块的y坐标，即前面所有板块的高度之和
          */
-        private void addChannelView() {
-            if (channelContents != null) {
-                groupChannelColumns = new int[channelContents.size()];
-                int j = 0;
-                int startRow = 0;
-                for (String aKeySet : channelContents.keySet()) {//遍历key值，设置标题名称
-                    List<Channel> channelContent = channelContents.get(aKeySet);
-                    if (j == 0 && channelFixedCount > channelContent.size()) {
-                        throw new RuntimeException("固定频道数量不能大于已选频道数量");
-                    }
-                    groupChannelColumns[j] = channelContent.size() % channelColumn == 0 ? channelContent.size() / channelColumn : channelContent.size() / channelColumn + 1;
-                    if (j == 0) {
-                        startRow = 0;
-                    } else {
-                        startRow += groupChannelColumns[j - 1] + 1;
-                    }
-                    Spec rowSpec = GridLayout.spec(startRow);
-                    //标题要占channelColumn列
-                    Spec columnSpec = GridLayout.spec(0, channelColumn);
-                    ChannelLayoutParams layoutParams = new ChannelLayoutParams(rowSpec, columnSpec);
-                    View view = LayoutInflater.from(mContext).inflate(R.layout.cgl_my_channel, null);
-                    TextView otherSubTitle = view.findViewById(R.id.tv_sub_title);
-                    if (j == 0) {
-                        tipEdit = view.findViewById(R.id.tv_tip_edit);
-                        tipEdit.setVisibility(VISIBLE);
-                        tipEdit.setOnClickListener(this);
-                        tipEdit.setBackgroundResource(tipEditBackground);
-                        tipEdit.setTextColor(tipEditTextColor);
-                        tipEdit.setTextSize(TypedValue.COMPLEX_UNIT_PX, tipEditTextSize);
-                        tipFinish = view.findViewById(R.id.tv_tip_finish);
-                        tipFinish.setVisibility(INVISIBLE);
-                        tipFinish.setOnClickListener(this);
-                        tipFinish.setBackgroundResource(tipFinishBackground);
-                        tipFinish.setTextColor(tipFinishTextColor);
-                        tipFinish.setTextSize(TypedValue.COMPLEX_UNIT_PX, tipFinishTextSize);
-                        subTitle = otherSubTitle;
-                        subTitle.setText(subTitleName);
-                        subTitle.setTextColor(subTitleTextColor);
-                        subTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, subTitleTextSize);
-                        subTitle.setBackgroundResource(subTitleBackground);
-                    } else {
-                        otherSubTitle.setText(otherSubTitleName);
-                        otherSubTitle.setTextColor(otherSubTitleTextColor);
-                        otherSubTitle.setBackgroundResource(otherSubTitleBackground);
-                        otherSubTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, otherSubTitleTextSize);
-                        otherSubTitles.add(otherSubTitle);
-                    }
-                    ChannelAttr channelTitleAttr = new ChannelAttr();
-                    channelTitleAttr.type = ChannelAttr.TITLE;
-                    channelTitleAttr.coordinate = new PointF();
-                    TextView tvTitle = view.findViewById(R.id.tv_title);
-                    tvTitle.setText(aKeySet);
-                    tvTitle.setTextSize(TypedValue.COMPLEX_UNIT_PX, platesTitleSize);
-                    tvTitle.setBackgroundResource(platesTitleBackground);
-                    tvTitle.setTextColor(platesTitleColor);
-                    if (platesTitleBold) {
-                        tvTitle.setTypeface(Typeface.DEFAULT_BOLD);
-                    }
-                    platesTitle.add(tvTitle);
-                    layoutParams.height = platesTitleHeight;
-                    layoutParams.leftMargin = channelPadding;
-                    //为标题View添加一个ChannelAttr属性
-                    layoutParams.mChannelAttr = channelTitleAttr;
-                    view.setPadding(platesTitleLeftRightPadding, 0, platesTitleLeftRightPadding, 0);
-                    addView(view, layoutParams);
-                    channelTitleGroups.add(view);
-                    ArrayList<View> channelGroup = new ArrayList<>();
-                    int remainder = channelContent.size() % channelColumn;
-                    for (int i = 0; i < channelContent.size(); i++) {//遍历value中的频道
-                        ViewHolder holder = styleAdapter.createStyleView(this, channelContent.get(i).channelName);
-                        View channelView = holder.itemView;
-                        if (channelView == null) {
-                            throw new RuntimeException("You must set an adapter for the channel.");
-                        }
-                        ChannelAttr channelAttr = new ChannelAttr();
-                        channelAttr.type = ChannelAttr.CHANNEL;
-                        channelAttr.groupIndex = j;
-                        channelAttr.coordinate = new PointF();
-                        channelAttr.channel = channelContent.get(i);
-                        if (j == 0) {
-                            if (i < channelFixedCount) {
-                                styleAdapter.setFixedStyle(holder);
-                                fixedTextView.add(channelView);
-                            } else {
-                                channelView.setOnTouchListener(this);
-                                channelView.setOnLongClickListener(this);
-                                styleAdapter.setNormalStyle(holder);
-                                allTextView.add(channelView);
-                            }
-                        } else {
-                            styleAdapter.setNormalStyle(holder);
-                            allTextView.add(channelView);
-                        }
-                        channelView.setOnClickListener(this);
-                        //设置每个频道的间距
-                        ChannelLayoutParams params = new ChannelLayoutParams();
-                        int leftMargin = channelVerticalSpacing / 2, topMargin = channelHorizontalSpacing / 2, rightMargin = channelVerticalSpacing / 2, bottomMargin = channelHorizontalSpacing / 2;
-                        if (i % channelColumn == 0) {
-                            leftMargin = channelPadding;
-                        }
-                        if ((i + 1) % channelColumn == 0) {
-                            rightMargin = channelPadding;
-                        }
-                        if (i < channelColumn) {
-                            topMargin = 0;
-                        }
-                        if (remainder == 0) {
-                            if (i >= channelContent.size() - channelColumn) {
-                                bottomMargin = 0;
-                            }
-                        } else {
-                            if (i >= channelContent.size() - remainder) {
-                                bottomMargin = 0;
-                            }
-                        }
-                        params.mChannelAttr = channelAttr;
-                        params.mViewHolder = holder;
-                        params.setMargins(leftMargin, topMargin, rightMargin, bottomMargin);
-                        addView(channelView, params);
-                        channelGroup.add(channelView);
-                    }
-                    channelGroups.add(channelGroup);
-                    j++;
-                }
-            }
+        private int getPlateTop(int j) {
+            return plateOffsets.prefix(j);
+        }
+
+        /**
+         * 频道所在行的y坐标
+         */
+        private int getChannelTop(int j, int i) {
+            return getPlateTop(j) + channelTitleGroups.get(j).getMeasuredHeight() + i / channelColumn * (channelHeight + channelHorizontalSpacing);
         }
 
         /**
@@ -1166,9 +3173,14 @@ public class ChannelView extends ScrollView {
 
         @Override
         public boolean onTouch(View v, MotionEvent event) {
+            if (gestureTrace != null) {
+                int group = getChannelAttr(v).groupIndex;
+                gestureTrace.add(GestureTrace.SOURCE_CHANNEL, event, group, channelGroups.get(group).indexOf(v));
+            }
 //            //如果点击的是我的频道组中的频道
             if (event.getAction() == MotionEvent.ACTION_DOWN) {
                 maxDistanceToDownPosition = 0;
+                isDragRecorded = false;
                 downX = dragX = event.getRawX();
                 downY = dragY = event.getRawY();
                 if (isEditState) {
@@ -1181,20 +3193,26 @@ public class ChannelView extends ScrollView {
                     //请求ScrollView不要拦截MOVE事件，交给TextView处理
                     requestDisallowInterceptTouchEvent(true);
                     if (maxDistanceToDownPosition < maxAccessDrag) {
-                        double sqrt = Math.sqrt(Math.pow(event.getRawX() - downX, 2) + Math.pow(event.getRawY() - downY, 2));
-                        if (sqrt > maxDistanceToDownPosition) {
-                            maxDistanceToDownPosition = sqrt;
+                        //合并在这次事件中的历史坐标也要计算，快速移出再移回时同样认为是拖拽
+                        float offsetX = event.getRawX() - event.getX();
+                        float offsetY = event.getRawY() - event.getY();
+                        for (int h = 0; h < event.getHistorySize(); h++) {
+                            updateMaxDistance(event.getHistoricalX(h) + offsetX, event.getHistoricalY(h) + offsetY);
                         }
+                        updateMaxDistance(event.getRawX(), event.getRawY());
                     }
-                    channelDrag(v, event);
+                    scheduleDrag(v, event.getRawX(), event.getRawY());
                 }
                 if (event.getAction() == MotionEvent.ACTION_UP || event.getAction() == MotionEvent.ACTION_CANCEL) {
+                    flushDrag();
+                    stopAutoScroll();
                     if (thread != null && thread.isAlive() && !thread.isInterrupted()) {
                         thread.interrupt();
                     }
                     if (isAccessDrag) {
-                        ChannelAttr vTag = getChannelAttr(v);
-                        v.animate().x(vTag.coordinate.x).y(vTag.coordinate.y).setDuration(DURATION_TIME);
+                        endDrag();
+                        syncDragMove();
+                        springTo(v, getChannelAttr(v));
                         styleAdapter.setEditStyle(getViewHolder(v));
                         isAccessDrag = false;
                         return !(maxDistanceToDownPosition < maxAccessDrag);
@@ -1228,9 +3246,10 @@ public class ChannelView extends ScrollView {
             @Override
             public void handleMessage(Message msg) {
                 View v = (View) msg.obj;
-                v.bringToFront();
+                raiseChild(v);
                 styleAdapter.setFocusedStyle(getViewHolder(v));
                 isAccessDrag = true;
+                startDrag(v);
             }
         };
 
@@ -1243,12 +3262,17 @@ public class ChannelView extends ScrollView {
                 }
             } else if (v == tipFinish) {//点击完成按钮时
                 changeTip(false);
+                List<Channel> myChannels = getMyChannel();
                 if (onChannelListener != null) {
-                    onChannelListener.channelEditFinish(getMyChannel());
+                    onChannelListener.channelEditFinish(myChannels);
+                    if (onChannelListener instanceof OnChannelListener3) {
+                        ((OnChannelListener3) onChannelListener).channelEditDelta(deltaTracker.build(myChannels));
+                    }
                 }
+                deltaTracker.reset(myChannels);
             } else {
                 ChannelAttr tag = getChannelAttr(v);
-                ArrayList<View> channels = channelGroups.get(tag.groupIndex);
+                ChannelGroup<View> channels = channelGroups.get(tag.groupIndex);
                 //如果点击的是我的频道组中的频道
                 int indexOf = channels.indexOf(v);
                 if (tag.groupIndex == 0) {
@@ -1281,8 +3305,8 @@ public class ChannelView extends ScrollView {
             if (isEditState) {
                 return true;
             }
-            v.bringToFront();
-            ArrayList<View> views = channelGroups.get(0);
+            raiseChild(v);
+            ChannelGroup<View> views = channelGroups.get(0);
             int indexOf = views.indexOf(v);
             if (indexOf >= channelFixedCount) {
                 for (int i = channelFixedCount; i < views.size(); i++) {
@@ -1295,12 +3319,13 @@ public class ChannelView extends ScrollView {
                 changeTip(true);
             }
             isAccessDrag = true;
+            startDrag(v);
             //要返回true，否则会触发onclick事件
             return true;
         }
 
         private void edit() {
-            ArrayList<View> views = channelGroups.get(0);
+            ChannelGroup<View> views = channelGroups.get(0);
             for (int i = channelFixedCount; i < views.size(); i++) {
                 styleAdapter.setEditStyle(getViewHolder(views.get(i)));
             }
@@ -1313,7 +3338,7 @@ public class ChannelView extends ScrollView {
          * @param v
          * @param channels
          */
-        private void forwardSort(View v, ArrayList<View> channels) {
+        private void forwardSort(View v, ChannelGroup<View> channels) {
             int size = channels.size();
             int indexOfValue = channels.indexOf(v);
             if (indexOfValue != size - 1) {
@@ -1323,7 +3348,7 @@ public class ChannelView extends ScrollView {
                     View currentView = channels.get(i);
                     ChannelAttr currentViewTag = getChannelAttr(currentView);
                     currentViewTag.coordinate = lastViewTag.coordinate;
-                    currentView.animate().x(currentViewTag.coordinate.x).y(currentViewTag.coordinate.y).setDuration(DURATION_TIME);
+                    animateMove(currentView, currentViewTag.coordinate.x, currentViewTag.coordinate.y);
                 }
             }
         }
@@ -1355,11 +3380,9 @@ public class ChannelView extends ScrollView {
          * @param v
          */
         private void addMyChannel(final View v) {
-            //让点击的view置于最前方，避免遮挡
-            v.bringToFront();
             ChannelAttr tag = getChannelAttr(v);
-            ArrayList<View> channels = channelGroups.get(tag.groupIndex);
-            ArrayList<View> myChannels = channelGroups.get(0);
+            ChannelGroup<View> channels = channelGroups.get(tag.groupIndex);
+            ChannelGroup<View> myChannels = channelGroups.get(0);
             View insertPositionChannel;
             if (myChannels.size() == 0) {
                 insertPositionChannel = channelTitleGroups.get(0);
@@ -1367,44 +3390,53 @@ public class ChannelView extends ScrollView {
                 insertPositionChannel = myChannels.get(myChannels.size() - 1);
             }
             ChannelAttr insertPositionChannelTag = getChannelAttr(insertPositionChannel);
+            int fromGroup = tag.groupIndex;
+            int fromIndex = channels.indexOf(v);
             myChannels.add(myChannels.size(), v);
             channels.remove(v);
+            changePlate(v, 0);
+            //让点击的view置于最前方，避免遮挡
+            raiseChild(v);
             v.setOnLongClickListener(this);
             v.setOnTouchListener(this);
-            animateChangeGridLayoutHeight();
-            ViewPropertyAnimator animate = v.animate();
+            updateGroupRows(0);
+            updateGroupRows(fromGroup);
+            animateChangeLayoutHeight();
             if (myChannels.size() % channelColumn == 1 || channelColumn == 1) {
                 if (myChannels.size() == 1) {
                     tag.coordinate = new PointF(insertPositionChannelTag.coordinate.x, insertPositionChannelTag.coordinate.y + insertPositionChannel.getMeasuredHeight());
-                    //我的频道多一行，下面的view往下移
-                    viewMove(1, channelHeight);
                 } else {
                     ChannelAttr firstMyChannelTag = getChannelAttr(myChannels.get(0));
                     tag.coordinate = new PointF(firstMyChannelTag.coordinate.x, insertPositionChannelTag.coordinate.y + channelHeight + channelHorizontalSpacing);
-                    //我的频道多一行，下面的view往下移
-                    viewMove(1, channelHeight + channelHorizontalSpacing);
                 }
             } else {
                 tag.coordinate = new PointF(insertPositionChannelTag.coordinate.x + channelWidth + channelVerticalSpacing, insertPositionChannelTag.coordinate.y);
             }
+            //我的频道多一行（包括分页预留的占位），下面的view往下移
+            int myChannelSize = getGroupSize(0);
+            if (myChannelSize % channelColumn == 1 || channelColumn == 1) {
+                viewMove(1, myChannelSize == 1 ? channelHeight : channelHeight + channelHorizontalSpacing);
+            }
             //可自定义插入位置，暂时在尾部插入
             int insertPosition = getInsertPosition();
             if (insertPosition != myChannels.size() - 1) {
                 backOrForward(v, insertPosition, myChannels.size() - 1, myChannels, tag, getChannelAttr(myChannels.get(insertPosition)));
             }
-            animate.x(tag.coordinate.x).y(tag.coordinate.y).setDuration(DURATION_TIME);
+            animateMove(v, tag.coordinate.x, tag.coordinate.y);
             if (channelClickType == DELETE) {
                 styleAdapter.setEditStyle(getViewHolder(v));
             }
             //该频道少一行，下面的view往上移
-            if (channels.size() % channelColumn == 0) {
-                if (channels.size() == 0) {
+            int channelSize = getGroupSize(tag.groupIndex);
+            if (channelSize % channelColumn == 0) {
+                if (channelSize == 0) {
                     viewMove(tag.groupIndex + 1, -channelHeight);
                 } else {
                     viewMove(tag.groupIndex + 1, -channelHeight - channelHorizontalSpacing);
                 }
             }
             tag.groupIndex = 0;
+            onChannelMoved(tag.channel, fromGroup, fromIndex, 0, myChannels.indexOf(v));
         }
 
         /**
@@ -1413,8 +3445,6 @@ public class ChannelView extends ScrollView {
          * @param v
          */
         private void deleteMyChannel(View v) {
-            //让点击的view置于最前方，避免遮挡
-            v.bringToFront();
             if (channelClickType == DELETE) {
                 styleAdapter.setNormalStyle(getViewHolder(v));
             }
@@ -1423,37 +3453,46 @@ public class ChannelView extends ScrollView {
             if (belong < 1 || belong > channelContents.size() - 1) {
                 belong = 1;
             }
-            ArrayList<View> beLongChannels = channelGroups.get(belong);
+            changePlate(v, belong);
+            //让点击的view置于最前方，避免遮挡
+            raiseChild(v);
+            ChannelGroup<View> beLongChannels = channelGroups.get(belong);
             if (beLongChannels.size() == 0) {
                 tag.coordinate = new PointF(getChannelAttr(channelTitleGroups.get(belong)).coordinate.x, getChannelAttr(channelTitleGroups.get(belong)).coordinate.y + channelTitleGroups.get(belong).getMeasuredHeight());
             } else {
                 ChannelAttr arriveTag = getChannelAttr(beLongChannels.get(0));
                 tag.coordinate = arriveTag.coordinate;
             }
-            v.animate().x(tag.coordinate.x).y(tag.coordinate.y).setDuration(DURATION_TIME);
+            animateMove(v, tag.coordinate.x, tag.coordinate.y);
+            int fromIndex = channelGroups.get(0).indexOf(v);
             beLongChannels.add(0, v);
             channelGroups.get(0).remove(v);
             v.setOnLongClickListener(null);
             v.setOnTouchListener(null);
-            animateChangeGridLayoutHeight();
+            updateGroupRows(0);
+            updateGroupRows(belong);
+            animateChangeLayoutHeight();
             PointF newPointF;
             ChannelAttr finalChannelViewTag = getChannelAttr(beLongChannels.get(beLongChannels.size() - 1));
             //这个地方要注意顺序
-            if (channelGroups.get(0).size() % channelColumn == 0) {
+            if (getGroupSize(0) % channelColumn == 0) {
                 //我的频道中少了一行，底下的所有view全都上移
-                if (channelGroups.get(0).size() == 0) {
+                if (getGroupSize(0) == 0) {
                     viewMove(1, -channelHeight);
                 } else {
                     viewMove(1, -channelHeight - channelHorizontalSpacing);
                 }
             }
-            if (beLongChannels.size() % channelColumn == 1) {
+            int beLongSize = getGroupSize(belong);
+            if (beLongSize % channelColumn == 1) {
                 //回收来频道中多了一行，底下的所有view全都下移
-                if (beLongChannels.size() == 1) {
+                if (beLongSize == 1) {
                     viewMove(belong + 1, channelHeight);
                 } else {
                     viewMove(belong + 1, channelHeight + channelHorizontalSpacing);
                 }
+            }
+            if (beLongChannels.size() % channelColumn == 1) {
                 newPointF = new PointF(tag.coordinate.x, finalChannelViewTag.coordinate.y + channelHeight + channelHorizontalSpacing);
             } else {
                 newPointF = new PointF(finalChannelViewTag.coordinate.x + channelWidth + channelVerticalSpacing, finalChannelViewTag.coordinate.y);
@@ -1468,28 +3507,24 @@ public class ChannelView extends ScrollView {
                 } else {
                     currentViewTag.coordinate = newPointF;
                 }
-                currentView.animate().x(currentViewTag.coordinate.x).y(currentViewTag.coordinate.y).setDuration(DURATION_TIME);
+                animateMove(currentView, currentViewTag.coordinate.x, currentViewTag.coordinate.y);
             }
             tag.groupIndex = belong;
+            onChannelMoved(tag.channel, 0, fromIndex, belong, 0);
         }
 
         /**
-         * 行数变化后的GridLayout高度并用动画改变
+         * 行数变化后的ChannelLayout高度并用动画改变，需要先通过updateGroupRows更新行数变化的板块
          */
-        private void animateChangeGridLayoutHeight() {
-            int newAllChannelGroupsHeight = 0;
-            for (int i = 0; i < channelGroups.size(); i++) {
-                ArrayList<View> channels = channelGroups.get(i);
-                groupChannelColumns[i] = channels.size() % channelColumn == 0 ? channels.size() / channelColumn : channels.size() / channelColumn + 1;
-            }
-            for (int groupChannelColumn : groupChannelColumns) {
-                if (groupChannelColumn > 0) {
-                    newAllChannelGroupsHeight += channelHeight * groupChannelColumn + (groupChannelColumn - 1) * channelHorizontalSpacing;
-                }
-            }
-            int changeHeight = newAllChannelGroupsHeight - allChannelGroupsHeight;
-            if (changeHeight != 0) {
-                allChannelGroupsHeight = newAllChannelGroupsHeight;
+        private void animateChangeLayoutHeight() {
+            int newAllPlatesHeight = plateOffsets.total();
+            int changeHeight = newAllPlatesHeight - allPlatesHeight;
+            if (changeHeight == 0 || isFastTransition()) {
+                //总高度不变时也要重新测量行数变化的板块，快速模式直接按新的高度测量
+                allPlatesHeight = newAllPlatesHeight;
+                requestLayout();
+            } else {
+                allPlatesHeight = newAllPlatesHeight;
                 ValueAnimator valueAnimator = ValueAnimator.ofInt(getMeasuredHeight(), getMeasuredHeight() + changeHeight);
                 valueAnimator.setDuration(DURATION_TIME);
                 valueAnimator.start();
@@ -1511,61 +3546,467 @@ public class ChannelView extends ScrollView {
         }
 
         /**
-         * 受到行数所影响的view进行上移或下移操作
+         * 受到行数所影响的板块进行上移或下移操作，每个板块只移动容器
          */
         private void viewMove(int position, int offSetY) {
-            for (int i = position; i < channelTitleGroups.size(); i++) {
-                View view = channelTitleGroups.get(i);
-                ChannelAttr tag = getChannelAttr(view);
+            for (int i = position; i < plateViews.size(); i++) {
+                PlateLayout plate = plateViews.get(i);
+                ChannelAttr tag = getChannelAttr(plate);
                 tag.coordinate = new PointF(tag.coordinate.x, tag.coordinate.y + offSetY);
-                view.animate().x(tag.coordinate.x).y(tag.coordinate.y).setDuration(DURATION_TIME);
-            }
-            for (int i = position; i < channelGroups.size(); i++) {
-                ArrayList<View> otherChannels = channelGroups.get(i);
-                for (int j = 0; j < otherChannels.size(); j++) {
-                    View view = otherChannels.get(j);
-                    ChannelAttr tag = getChannelAttr(view);
-                    tag.coordinate = new PointF(tag.coordinate.x, tag.coordinate.y + offSetY);
-                    view.animate().x(tag.coordinate.x).y(tag.coordinate.y).setDuration(DURATION_TIME);
-                }
+                animateMove(plate, tag.coordinate.x, tag.coordinate.y);
             }
         }
 
         private float downX, downY;
         private float dragX, dragY;
 
+        private void updateMaxDistance(float rawX, float rawY) {
+            double sqrt = Math.sqrt(Math.pow(rawX - downX, 2) + Math.pow(rawY - downY, 2));
+            if (sqrt > maxDistanceToDownPosition) {
+                maxDistanceToDownPosition = sqrt;
+            }
+        }
+
+        /**
+         * 等待下一帧处理的拖拽频道和手指坐标，一帧内的多次MOVE只保留最新的坐标
+         */
+        private View pendingDragView;
+        private float pendingDragX, pendingDragY;
+
+        private boolean isDragFrameScheduled;
+
+        private Choreographer.FrameCallback dragFrameCallback;
+
+        /**
+         * 记录手指坐标，在下一帧统一移动频道和查找目标位置，高刷新率的触摸屏上每帧最多处理一次
+         */
+        private void scheduleDrag(View v, float rawX, float rawY) {
+            pendingDragView = v;
+            pendingDragX = rawX;
+            pendingDragY = rawY;
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+                flushDrag();
+                return;
+            }
+            if (!isDragFrameScheduled) {
+                isDragFrameScheduled = true;
+                if (dragFrameCallback == null) {
+                    dragFrameCallback = new Choreographer.FrameCallback() {
+                        @Override
+                        public void doFrame(long frameTimeNanos) {
+                            isDragFrameScheduled = false;
+                            flushDrag();
+                        }
+                    };
+                }
+                Choreographer.getInstance().postFrameCallback(dragFrameCallback);
+            }
+        }
+
+        /**
+         * 立即处理等待中的拖拽
+         */
+        private void flushDrag() {
+            cancelScheduledDrag();
+            View v = pendingDragView;
+            if (v == null) {
+                return;
+            }
+            pendingDragView = null;
+            if (isAccessDrag) {
+                channelDrag(v, pendingDragX, pendingDragY);
+                updateAutoScroll(v, pendingDragY);
+            }
+        }
+
+        private void cancelScheduledDrag() {
+            if (isDragFrameScheduled) {
+                isDragFrameScheduled = false;
+                Choreographer.getInstance().removeFrameCallback(dragFrameCallback);
+            }
+        }
+
+        /**
+         * 拖拽时显示在浮层中的频道快照，为null时直接移动频道
+         */
+        private BitmapDrawable dragSnapshot;
+
+        /**
+         * 使用快照拖拽的频道
+         */
+        private View snapshotView;
+
+        /**
+         * 使用快照拖拽时快照在板块中的坐标，频道本身停在所在的位置
+         */
+        private float dragViewX, dragViewY;
+
+        /**
+         * 开始拖拽，开启了快照拖拽时将频道绘制到ChannelLayout的浮层中，之后只移动浮层中的快照
+         */
+        private void startDrag(View v) {
+            if (getChannelAttr(v).isSpringRunning) {
+                //松手后还在回弹时又被拖动
+                springMover.cancel(v);
+            }
+            if (!isDragSnapshotEnabled || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2 || dragSnapshot != null
+                    || v.getWidth() <= 0 || v.getHeight() <= 0) {
+                return;
+            }
+            Bitmap bitmap = Bitmap.createBitmap(v.getWidth(), v.getHeight(), Bitmap.Config.ARGB_8888);
+            v.draw(new Canvas(bitmap));
+            dragSnapshot = new BitmapDrawable(getResources(), bitmap);
+            dragViewX = v.getX();
+            dragViewY = v.getY();
+            snapshotView = v;
+            updateSnapshotBounds(v);
+            getOverlay().add(dragSnapshot);
+            v.setVisibility(INVISIBLE);
+        }
+
+        /**
+         * 结束拖拽，频道从快照的位置移动回去
+         */
+        private void endDrag() {
+            if (dragSnapshot == null) {
+                return;
+            }
+            snapshotView.setX(dragViewX);
+            snapshotView.setY(dragViewY);
+            snapshotView.setVisibility(VISIBLE);
+            getOverlay().remove(dragSnapshot);
+            dragSnapshot = null;
+            snapshotView = null;
+        }
+
+        private void updateSnapshotBounds(View v) {
+            View plate = (View) v.getParent();
+            int left = (int) (plate.getX() + dragViewX);
+            int top = (int) (plate.getY() + dragViewY);
+            //只重绘快照移动前后的区域
+            dragSnapshot.invalidateSelf();
+            dragSnapshot.setBounds(left, top, left + v.getWidth(), top + v.getHeight());
+            dragSnapshot.invalidateSelf();
+        }
+
+        /**
+         * 移动拖拽中的频道，使用快照时只移动快照
+         */
+        private void moveDragView(View v, float dx, float dy) {
+            if (dragSnapshot != null) {
+                dragViewX += dx;
+                dragViewY += dy;
+                updateSnapshotBounds(v);
+            } else {
+                v.setX(v.getX() + dx);
+                v.setY(v.getY() + dy);
+            }
+        }
+
         /**
          * 频道拖动
          */
-        private void channelDrag(View v, MotionEvent event) {
-            float moveX = event.getRawX();
-            float moveY = event.getRawY();
-            v.setX(v.getX() + (moveX - dragX));
-            v.setY(v.getY() + (moveY - dragY));
+        private void channelDrag(View v, float moveX, float moveY) {
+            if (getChannelAttr(v).isSpringRunning) {
+                //松手后还在回弹时又被拖动
+                springMover.cancel(v);
+            }
+            moveDragView(v, moveX - dragX, moveY - dragY);
             dragX = moveX;
             dragY = moveY;
-            ArrayList<View> myChannels = channelGroups.get(0);
+            dragHitTest(v);
+        }
+
+        /**
+         * 根据拖拽频道当前的位置查找目标位置并排序，自动滚动时每帧都会调用，不能创建对象
+         */
+        private void dragHitTest(View v) {
+            ChannelGroup<View> myChannels = channelGroups.get(0);
             ChannelAttr vTag = getChannelAttr(v);
             int vIndex = myChannels.indexOf(v);
+            float vX = dragSnapshot != null ? dragViewX : v.getX();
+            float vY = dragSnapshot != null ? dragViewY : v.getY();
             for (int i = 0; i < myChannels.size(); i++) {
                 if (i >= channelFixedCount && i != vIndex) {
                     View iChannel = myChannels.get(i);
                     ChannelAttr iChannelTag = getChannelAttr(iChannel);
                     int x1 = (int) iChannelTag.coordinate.x;
                     int y1 = (int) iChannelTag.coordinate.y;
-                    int sqrt = (int) Math.sqrt((v.getX() - x1) * (v.getX() - x1) + (v.getY() - y1) * (v.getY() - y1));
+                    int sqrt = (int) Math.sqrt((vX - x1) * (vX - x1) + (vY - y1) * (vY - y1));
                     if (sqrt <= RANGE) {
                         backOrForward(v, i, vIndex, myChannels, vTag, iChannelTag);
+                        if (dragSnapshot != null) {
+                            //频道本身直接停到新的位置
+                            v.setX(vTag.coordinate.x);
+                            v.setY(vTag.coordinate.y);
+                        }
+                        onChannelMoved(vTag.channel, 0, vIndex, 0, i);
                         break;
                     }
                 }
             }
         }
 
+        /**
+         * 根据手指在ChannelView中的位置计算自动滚动速度，进入上下边缘区域时开始逐帧滚动
+         *
+         * @param v    正在拖拽的频道
+         * @param rawY 手指在屏幕中的y坐标
+         */
+        private void updateAutoScroll(View v, float rawY) {
+            ChannelView.this.getLocationOnScreen(viewportLocation);
+            float y = rawY - viewportLocation[1];
+            int height = ChannelView.this.getHeight();
+            int edge = Math.min(autoScrollEdge, height / 4);
+            if (edge <= 0) {
+                autoScrollSpeed = 0;
+            } else if (y < edge) {
+                autoScrollSpeed = -(int) Math.ceil(autoScrollMaxSpeed * Math.min(edge - y, edge) / edge);
+            } else if (y > height - edge) {
+                autoScrollSpeed = (int) Math.ceil(autoScrollMaxSpeed * Math.min(y - height + edge, edge) / edge);
+            } else {
+                autoScrollSpeed = 0;
+            }
+            autoScrollView = v;
+            if (autoScrollSpeed != 0 && !isAutoScrolling) {
+                isAutoScrolling = true;
+                postAutoScrollFrame();
+            }
+        }
+
+        /**
+         * 提交下一帧的自动滚动
+         */
+        private void postAutoScrollFrame() {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+                if (autoScrollFrameCallback == null) {
+                    autoScrollFrameCallback = new Choreographer.FrameCallback() {
+                        @Override
+                        public void doFrame(long frameTimeNanos) {
+                            doAutoScroll();
+                        }
+                    };
+                }
+                Choreographer.getInstance().postFrameCallback(autoScrollFrameCallback);
+            } else {
+                postDelayed(autoScrollRunnable, 16);
+            }
+        }
+
+        /**
+         * 每帧滚动一次，拖拽的频道跟随内容移动以保持在手指下方，并重新查找目标位置
+         */
+        private void doAutoScroll() {
+            if (autoScrollSpeed == 0 || autoScrollView == null || !isAccessDrag) {
+                isAutoScrolling = false;
+                return;
+            }
+            int scrollY = ChannelView.this.getScrollY();
+            ChannelView.this.scrollBy(0, autoScrollSpeed);
+            int dy = ChannelView.this.getScrollY() - scrollY;
+            if (dy == 0) {
+                //已经滚动到顶部或底部
+                isAutoScrolling = false;
+                return;
+            }
+            moveDragView(autoScrollView, 0, dy);
+            dragHitTest(autoScrollView);
+            postAutoScrollFrame();
+        }
+
+        private void stopAutoScroll() {
+            autoScrollSpeed = 0;
+            autoScrollView = null;
+            if (isAutoScrolling) {
+                isAutoScrolling = false;
+                if (autoScrollFrameCallback != null) {
+                    Choreographer.getInstance().removeFrameCallback(autoScrollFrameCallback);
+                }
+                removeCallbacks(autoScrollRunnable);
+            }
+        }
+
+        /**
+         * 过渡动画期间使用硬件层的View
+         */
+        private List<View> layerViews = new ArrayList<>();
+
+        private Runnable releaseLayersRunnable = new Runnable() {
+            @Override
+            public void run() {
+                releaseLayers();
+            }
+        };
+
+        /**
+         * 正在进行的属性动画数量，动画结束或取消时减少
+         */
+        private int runningMoveCount;
+
+        /**
+         * 本次编辑是否使用快速模式，-1表示还未判断。每次编辑只判断一次，之后清除
+         */
+        private int fastModeState = -1;
+
+        private Runnable resetFastModeRunnable = new Runnable() {
+            @Override
+            public void run() {
+                fastModeState = -1;
+            }
+        };
+
+        private boolean isFastTransition() {
+            if (fastModeState < 0) {
+                fastModeState = isFastMode() ? 1 : 0;
+                post(resetFastModeRunnable);
+            }
+            return fastModeState == 1;
+        }
+
+        /**
+         * 移动View到指定坐标，不在可见区域内或动画数量超过上限时直接移动过去
+         */
+        private void animateMove(View view, float x, float y) {
+            //弹簧和属性动画不能同时修改坐标
+            cancelSpring(view);
+            if (!startTransition(view, x, y)) {
+                cancelMoveAnimator(view);
+                view.setX(x);
+                view.setY(y);
+                return;
+            }
+            promoteLayer(view);
+            final ChannelAttr attr = getChannelAttr(view);
+            if (attr.moveListener == null) {
+                attr.moveListener = new AnimatorListenerAdapter() {
+                    @Override
+                    public void onAnimationEnd(Animator animation) {
+                        finishMoveAnimator(attr);
+                    }
+                };
+            }
+            //修改正在进行的动画的目标时，原来的动画会先取消并回调结束
+            view.animate().setListener(attr.moveListener).x(x).y(y).setDuration(DURATION_TIME);
+            if (!attr.isMoveRunning) {
+                attr.isMoveRunning = true;
+                runningMoveCount++;
+            }
+        }
+
+        private void finishMoveAnimator(ChannelAttr attr) {
+            if (attr.isMoveRunning) {
+                attr.isMoveRunning = false;
+                runningMoveCount--;
+            }
+        }
+
+        /**
+         * 取消属性动画，还未开始的动画取消时没有回调，需要自己更新数量
+         */
+        private void cancelMoveAnimator(View view) {
+            view.animate().cancel();
+            finishMoveAnimator(getChannelAttr(view));
+        }
+
+        private void cancelSpring(View view) {
+            if (getChannelAttr(view).isSpringRunning) {
+                springMover.cancel(view);
+            }
+        }
+
+        /**
+         * 正在进行的属性动画和弹簧动画数量
+         */
+        private int getRunningTransitionCount() {
+            return runningMoveCount + springMover.getRunningCount();
+        }
+
+        /**
+         * 弹簧运动到attr.coordinate，不在可见区域内或动画数量超过上限时直接移动过去
+         */
+        private void springTo(View view, ChannelAttr attr) {
+            if (!startTransition(view, attr.coordinate.x, attr.coordinate.y)) {
+                springMover.cancel(view);
+                cancelMoveAnimator(view);
+                view.setX(attr.coordinate.x);
+                view.setY(attr.coordinate.y);
+                return;
+            }
+            promoteLayer(view);
+            cancelMoveAnimator(view);
+            springMover.animateTo(view, attr);
+        }
+
+        /**
+         * 判断View的移动是否需要动画，起点或终点在可见区域（上下各加半屏）内才需要，
+         * 同时进行的动画数量不超过上限，这样过渡的耗时与频道总数无关。
+         * 已经在动画中的View只是修改目标位置，不算新的动画
+         *
+         * @param x 目标x坐标
+         * @param y 目标y坐标
+         * @return 是否需要动画
+         */
+        private boolean startTransition(View view, float x, float y) {
+            ViewParent parent = view.getParent();
+            if (parent == null || isFastTransition()) {
+                return false;
+            }
+            ChannelAttr attr = getChannelAttr(view);
+            if (!attr.isMoveRunning && !attr.isSpringRunning && getRunningTransitionCount() >= maxTransitionAnimators) {
+                return false;
+            }
+            float startTop = view.getY();
+            float endTop = y;
+            if (parent != this) {
+                //频道的坐标是在板块中的坐标
+                View plate = (View) parent;
+                startTop += plate.getY();
+                endTop += getChannelAttr(plate).coordinate.y;
+            }
+            int viewportHeight = ChannelView.this.getHeight();
+            float top = ChannelView.this.getScrollY() - getTop() - viewportHeight / 2f;
+            float bottom = top + viewportHeight * 2;
+            int height = view.getHeight();
+            if (startTop + height <= top && endTop + height <= top || startTop >= bottom && endTop >= bottom) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 过渡动画期间将View提升为硬件层，动画过程中不必每帧重新绘制，数量超过上限的View不再提升。
+         * 最后一次过渡开始后统一移除，弹簧动画的时间比属性动画稍长，所以多等待一段时间
+         */
+        private void promoteLayer(View view) {
+            //板块容器和标题可能比最大纹理尺寸还大，只提升频道
+            if (!isTransitionLayerEnabled || getChannelAttr(view).type != ChannelAttr.CHANNEL) {
+                return;
+            }
+            if (view.getLayerType() == LAYER_TYPE_NONE && layerViews.size() < maxTransitionLayers) {
+                view.setLayerType(LAYER_TYPE_HARDWARE, null);
+                layerViews.add(view);
+            }
+            removeCallbacks(releaseLayersRunnable);
+            postDelayed(releaseLayersRunnable, DURATION_TIME * 2);
+        }
+
+        private void releaseLayers() {
+            removeCallbacks(releaseLayersRunnable);
+            for (int i = 0; i < layerViews.size(); i++) {
+                layerViews.get(i).setLayerType(LAYER_TYPE_NONE, null);
+            }
+            layerViews.clear();
+        }
+
+        /**
+         * 拖拽排序时频道移动的弹簧动画
+         */
+        private SpringMover springMover = new SpringMover();
+
         /**
          * 我的频道，循环往前、后移
          */
-        private void backOrForward(View v, int i, int vIndex, ArrayList<View> myChannels, ChannelAttr vTag, ChannelAttr iChannelTag) {
+        private void backOrForward(View v, int i, int vIndex, ChannelGroup<View> myChannels, ChannelAttr vTag, ChannelAttr iChannelTag) {
             PointF tempPoint = iChannelTag.coordinate;
             if (i < vIndex) {
                 for (int j = i; j < vIndex; j++) {
@@ -1573,8 +4014,7 @@ public class ChannelView extends ScrollView {
                     ChannelAttr viewTag = getChannelAttr(view);
                     ChannelAttr nextGridViewAttr = getChannelAttr(myChannels.get(j + 1));
                     viewTag.coordinate = nextGridViewAttr.coordinate;
-                    view.animate().x(viewTag.coordinate.x).setDuration(DURATION_TIME).start();
-                    view.animate().y(viewTag.coordinate.y).setDuration(DURATION_TIME).start();
+                    springTo(view, viewTag);
                 }
             } else {
                 for (int j = i; j > vIndex; j--) {
@@ -1582,8 +4022,7 @@ public class ChannelView extends ScrollView {
                     ChannelAttr viewTag = getChannelAttr(view);
                     ChannelAttr preGridViewAttr = getChannelAttr(myChannels.get(j - 1));
                     viewTag.coordinate = preGridViewAttr.coordinate;
-                    view.animate().x(viewTag.coordinate.x).setDuration(DURATION_TIME).start();
-                    view.animate().y(viewTag.coordinate.y).setDuration(DURATION_TIME).start();
+                    springTo(view, viewTag);
                 }
             }
             vTag.coordinate = tempPoint;
@@ -1597,7 +4036,7 @@ public class ChannelView extends ScrollView {
          * @param state
          */
         private void changeTip(boolean state) {
-            ArrayList<View> views = channelGroups.get(0);
+            ChannelGroup<View> views = channelGroups.get(0);
             if (state) {
                 tipFinish.setVisibility(VISIBLE);
                 tipEdit.setVisibility(INVISIBLE);
@@ -1616,10 +4055,26 @@ public class ChannelView extends ScrollView {
             }
         }
 
+        @Override
+        protected void onAttachedToWindow() {
+            super.onAttachedToWindow();
+            scheduleStagedBuild();
+        }
+
         @Override
         protected void onDetachedFromWindow() {
             super.onDetachedFromWindow();
             handler.removeCallbacksAndMessages(null);
+            cancelScheduledDrag();
+            pendingDragView = null;
+            endDrag();
+            syncDragMove();
+            springMover.cancelAll();
+            cancelStagedBuild();
+            releaseLayers();
+            removeCallbacks(resetFastModeRunnable);
+            fastModeState = -1;
+            stopAutoScroll();
         }
     }
 
@@ -1631,6 +4086,10 @@ public class ChannelView extends ScrollView {
         return ((ChannelLayoutParams) view.getLayoutParams()).mViewHolder;
     }
 
+    /**
+     * 频道、标题和板块容器的布局参数。
+     * 为了兼容仍然继承GridLayout.LayoutParams，但ChannelLayout不再是GridLayout，按板块和频道位置自行布局，rowSpec、columnSpec等GridLayout的参数不会生效
+     */
     public static class ChannelLayoutParams extends GridLayout.LayoutParams {
         ViewHolder mViewHolder;
         ChannelAttr mChannelAttr;
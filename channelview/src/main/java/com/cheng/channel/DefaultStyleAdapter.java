@@ -9,11 +9,12 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import com.cheng.channel.adapter.BaseStyleAdapter;
+import com.cheng.channel.adapter.RecyclableStyleAdapter;
 
 /**
  * 默认的频道适配样式，如果没有设置setAdapter，默认使用这个
  */
-public abstract class DefaultStyleAdapter extends BaseStyleAdapter<DefaultStyleAdapter.DefaultViewHolder> {
+public abstract class DefaultStyleAdapter extends BaseStyleAdapter<DefaultStyleAdapter.DefaultViewHolder> implements RecyclableStyleAdapter<DefaultStyleAdapter.DefaultViewHolder> {
     @Override
     public DefaultViewHolder createStyleView(ViewGroup parent, String channelName) {
         TextView textView = new TextView(parent.getContext());
@@ -23,6 +24,18 @@ public abstract class DefaultStyleAdapter extends BaseStyleAdapter<DefaultStyleA
         return new DefaultViewHolder(textView);
     }
 
+    @Override
+    public void bindStyleView(DefaultViewHolder viewHolder, String channelName) {
+        viewHolder.textView.setText(channelName);
+        viewHolder.textView.setTextSize(TypedValue.COMPLEX_UNIT_PX, channelTextSize);
+    }
+
+    @Override
+    public void recycleStyleView(DefaultViewHolder viewHolder) {
+        viewHolder.textView.setText(null);
+        setNormalStyle(viewHolder);
+    }
+
     @Override
     public void setNormalStyle(DefaultViewHolder viewHolder) {
         viewHolder.textView.setTextColor(channelNormalTextColor);
@@ -0,0 +1,134 @@
+package com.cheng.channel;
+
+/**
+ * 频道编辑记录，每条记录为一次频道移动（频道、原板块位置、目标板块位置），
+ * 使用环形缓冲区保存，超出容量时丢弃最早的记录
+ */
+class EditLog {
+    /**
+     * 每条记录占用的int数量：原板块、原位置、目标板块、目标位置
+     */
+    private static final int OP_SIZE = 4;
+
+    private final int capacity;
+
+    private final Channel[] channels;
+
+    private final int[] ops;
+
+    /**
+     * 最早一条记录所在的槽位
+     */
+    private int start;
+
+    /**
+     * 记录数量
+     */
+    private int size;
+
+    /**
+     * 已生效的记录数量，撤销时减少，重做时增加
+     */
+    private int cursor;
+
+    EditLog(int capacity) {
+        this.capacity = capacity;
+        channels = new Channel[capacity];
+        ops = new int[capacity * OP_SIZE];
+    }
+
+    /**
+     * 记录一次移动，会丢弃已撤销的记录
+     *
+     * @param merge 是否与上一条同一频道的板块内移动合并（同一次拖拽）
+     * @return 最后一条记录是否为这次移动，拖回原来的位置时合并后的记录被删除，返回false
+     */
+    boolean record(Channel channel, int fromGroup, int fromIndex, int toGroup, int toIndex, boolean merge) {
+        size = cursor;
+        if (merge && size > 0 && fromGroup == toGroup) {
+            int slot = (start + size - 1) % capacity;
+            int offset = slot * OP_SIZE;
+            if (channels[slot] == channel && ops[offset] == fromGroup && ops[offset + 2] == fromGroup && ops[offset + 3] == fromIndex) {
+                if (ops[offset + 1] == toIndex) {
+                    //拖回了原来的位置
+                    channels[slot] = null;
+                    size--;
+                    cursor = size;
+                    return false;
+                }
+                ops[offset + 3] = toIndex;
+                cursor = size;
+                return true;
+            }
+        }
+        if (size == capacity) {
+            channels[start] = null;
+            start = (start + 1) % capacity;
+            size--;
+        }
+        int slot = (start + size) % capacity;
+        int offset = slot * OP_SIZE;
+        channels[slot] = channel;
+        ops[offset] = fromGroup;
+        ops[offset + 1] = fromIndex;
+        ops[offset + 2] = toGroup;
+        ops[offset + 3] = toIndex;
+        size++;
+        cursor = size;
+        return true;
+    }
+
+    boolean canUndo() {
+        return cursor > 0;
+    }
+
+    boolean canRedo() {
+        return cursor < size;
+    }
+
+    /**
+     * @return 需要撤销的记录所在槽位
+     */
+    int undo() {
+        cursor--;
+        return (start + cursor) % capacity;
+    }
+
+    /**
+     * @return 需要重做的记录所在槽位
+     */
+    int redo() {
+        int slot = (start + cursor) % capacity;
+        cursor++;
+        return slot;
+    }
+
+    Channel getChannel(int slot) {
+        return channels[slot];
+    }
+
+    int getFromGroup(int slot) {
+        return ops[slot * OP_SIZE];
+    }
+
+    int getFromIndex(int slot) {
+        return ops[slot * OP_SIZE + 1];
+    }
+
+    int getToGroup(int slot) {
+        return ops[slot * OP_SIZE + 2];
+    }
+
+    int getToIndex(int slot) {
+        return ops[slot * OP_SIZE + 3];
+    }
+
+    void clear() {
+        for (int i = 0; i < capacity; i++) {
+            channels[i] = null;
+        }
+        start = 0;
+        size = 0;
+        cursor = 0;
+    }
+}
@@ -0,0 +1,293 @@
+package com.cheng.channel;
+
+import android.view.MotionEvent;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 手势记录，保存到达ChannelView和频道的触摸事件、录制时的板块结构（列数和每个板块的频道数量）
+ * 以及ChannelView的尺寸和滑动位置，可以保存为二进制数据，在相同结构和尺寸的ChannelView上重放（见单元测试中的GestureTraceReplayer）。
+ * 只记录第一个手指的坐标
+ */
+public final class GestureTrace {
+    /**
+     * ChannelView.dispatchTouchEvent收到的事件，坐标为在ChannelView中的坐标，重放时使用
+     */
+    public static final int SOURCE_VIEW = 0x00;
+
+    /**
+     * 频道onTouch收到的事件，坐标为屏幕坐标，用于分析事件落在哪个频道
+     */
+    public static final int SOURCE_CHANNEL = 0x01;
+
+    private static final int MAGIC = 0x43564754;
+
+    private static final int VERSION = 2;
+
+    private int channelColumn;
+
+    private int[] plateSizes;
+
+    /**
+     * 录制开始时ChannelView的宽高和滑动位置
+     */
+    private int viewWidth, viewHeight, scrollY;
+
+    private int size;
+
+    private byte[] sources = new byte[64];
+    private byte[] actions = new byte[64];
+    /**
+     * 距离第一个事件的时间，单位ms
+     */
+    private int[] times = new int[64];
+    private float[] xs = new float[64];
+    private float[] ys = new float[64];
+    /**
+     * SOURCE_CHANNEL事件所在的板块和频道位置，SOURCE_VIEW事件为-1
+     */
+    private int[] plates = new int[64];
+    private int[] indexes = new int[64];
+
+    /**
+     * 第一个事件的时间
+     */
+    private long startTime = -1;
+
+    GestureTrace(int channelColumn, int[] plateSizes, int viewWidth, int viewHeight, int scrollY) {
+        this.channelColumn = channelColumn;
+        this.plateSizes = plateSizes;
+        this.viewWidth = viewWidth;
+        this.viewHeight = viewHeight;
+        this.scrollY = scrollY;
+    }
+
+    void add(int source, MotionEvent event, int plate, int index) {
+        if (startTime < 0) {
+            startTime = event.getEventTime();
+        }
+        if (source == SOURCE_VIEW) {
+            add(source, event.getActionMasked(), (int) (event.getEventTime() - startTime), event.getX(), event.getY(), -1, -1);
+        } else {
+            add(source, event.getActionMasked(), (int) (event.getEventTime() - startTime), event.getRawX(), event.getRawY(), plate, index);
+        }
+    }
+
+    private void add(int source, int action, int time, float x, float y, int plate, int index) {
+        if (size == sources.length) {
+            int capacity = size * 2;
+            sources = Arrays.copyOf(sources, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+            times = Arrays.copyOf(times, capacity);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            plates = Arrays.copyOf(plates, capacity);
+            indexes = Arrays.copyOf(indexes, capacity);
+        }
+        sources[size] = (byte) source;
+        actions[size] = (byte) action;
+        times[size] = time;
+        xs[size] = x;
+        ys[size] = y;
+        plates[size] = plate;
+        indexes[size] = index;
+        size++;
+    }
+
+    public int getChannelColumn() {
+        return channelColumn;
+    }
+
+    /**
+     * 录制开始时ChannelView的宽度
+     */
+    public int getViewWidth() {
+        return viewWidth;
+    }
+
+    public int getViewHeight() {
+        return viewHeight;
+    }
+
+    /**
+     * 录制开始时ChannelView的滑动位置
+     */
+    public int getScrollY() {
+        return scrollY;
+    }
+
+    public int getPlateCount() {
+        return plateSizes.length;
+    }
+
+    /**
+     * 录制时板块中的频道数量
+     */
+    public int getPlateSize(int plate) {
+        return plateSizes[plate];
+    }
+
+    public int getEventCount() {
+        return size;
+    }
+
+    public int getSource(int i) {
+        return sources[i];
+    }
+
+    /**
+     * @return {@link MotionEvent#getActionMasked()}
+     */
+    public int getAction(int i) {
+        return actions[i];
+    }
+
+    /**
+     * 距离第一个事件的时间，单位ms
+     */
+    public int getTime(int i) {
+        return times[i];
+    }
+
+    public float getX(int i) {
+        return xs[i];
+    }
+
+    public float getY(int i) {
+        return ys[i];
+    }
+
+    public int getPlate(int i) {
+        return plates[i];
+    }
+
+    public int getIndex(int i) {
+        return indexes[i];
+    }
+
+    /**
+     * 按录制时的板块结构创建频道数据，频道名称为"板块位置-频道位置"，用于创建重放的ChannelView
+     *
+     * @return
+     */
+    public LinkedHashMap<String, List<Channel>> createChannelData() {
+        LinkedHashMap<String, List<Channel>> channelData = new LinkedHashMap<>();
+        for (int j = 0; j < plateSizes.length; j++) {
+            List<Channel> channels = new ArrayList<>();
+            for (int i = 0; i < plateSizes[j]; i++) {
+                channels.add(new Channel(j + "-" + i, Math.max(j, 1)));
+            }
+            channelData.put("板块" + j, channels);
+        }
+        return channelData;
+    }
+
+    /**
+     * 保存为二进制数据，时间保存为与上一个事件的间隔，使用变长整数，不限制间隔的长度
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeShort(channelColumn);
+        data.writeInt(viewWidth);
+        data.writeInt(viewHeight);
+        data.writeInt(scrollY);
+        data.writeInt(plateSizes.length);
+        for (int plateSize : plateSizes) {
+            data.writeInt(plateSize);
+        }
+        data.writeInt(size);
+        int lastTime = 0;
+        for (int i = 0; i < size; i++) {
+            data.writeByte(sources[i]);
+            data.writeByte(actions[i]);
+            writeVarInt(data, times[i] - lastTime);
+            lastTime = times[i];
+            data.writeFloat(xs[i]);
+            data.writeFloat(ys[i]);
+            if (sources[i] == SOURCE_CHANNEL) {
+                data.writeShort(plates[i]);
+                data.writeInt(indexes[i]);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * 读取{@link #writeTo(OutputStream)}保存的数据
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    public static GestureTrace readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a gesture trace.");
+        }
+        int version = data.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported gesture trace version: " + version);
+        }
+        int channelColumn = data.readShort();
+        int viewWidth = data.readInt();
+        int viewHeight = data.readInt();
+        int scrollY = data.readInt();
+        int[] plateSizes = new int[data.readInt()];
+        for (int j = 0; j < plateSizes.length; j++) {
+            plateSizes[j] = data.readInt();
+        }
+        GestureTrace trace = new GestureTrace(channelColumn, plateSizes, viewWidth, viewHeight, scrollY);
+        int count = data.readInt();
+        int time = 0;
+        for (int i = 0; i < count; i++) {
+            int source = data.readByte();
+            int action = data.readByte();
+            time += readVarInt(data);
+            float x = data.readFloat();
+            float y = data.readFloat();
+            if (source == SOURCE_CHANNEL) {
+                int plate = data.readShort();
+                trace.add(source, action, time, x, y, plate, data.readInt());
+            } else {
+                trace.add(source, action, time, x, y, -1, -1);
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * 按每字节7位写入非负整数，最高位表示后面还有字节
+     */
+    private static void writeVarInt(DataOutputStream data, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            data.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream data) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed gesture trace.");
+    }
+}
@@ -0,0 +1,178 @@
+package com.cheng.channel;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.cheng.channel.adapter.IconStyleAdapter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 频道图标缓存，按占用内存限制大小的LRU缓存，可在多个ChannelView之间共享。
+ * 图标在后台线程中解码，同一个图标同时只会解码一次，需要在主线程中使用
+ */
+public class IconCache {
+    private static Executor defaultExecutor;
+
+    private LruCache<String, Bitmap> cache;
+
+    private Executor executor;
+
+    /**
+     * 正在解码的图标以及等待结果的回调
+     */
+    private Map<String, List<Callback>> pendingCallbacks = new HashMap<>();
+
+    private Handler handler = new Handler(Looper.getMainLooper());
+
+    /**
+     * 默认使用应用最大内存的1/8
+     */
+    public IconCache() {
+        this((int) Math.min(Runtime.getRuntime().maxMemory() / 8, Integer.MAX_VALUE));
+    }
+
+    /**
+     * @param maxSize 缓存的最大字节数
+     */
+    public IconCache(int maxSize) {
+        cache = new LruCache<String, Bitmap>(maxSize) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * 设置解码图标的线程池，默认为两个线程的线程池
+     *
+     * @param executor
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.evictAll();
+    }
+
+    Bitmap get(String key, int width, int height) {
+        return cache.get(getCacheKey(key, width, height));
+    }
+
+    /**
+     * 在后台线程中解码图标，完成后在主线程中回调并放入缓存
+     */
+    void load(final String key, final int width, final int height, final IconStyleAdapter adapter, Callback callback) {
+        final String cacheKey = getCacheKey(key, width, height);
+        List<Callback> callbacks = pendingCallbacks.get(cacheKey);
+        if (callbacks != null) {
+            callbacks.add(callback);
+            return;
+        }
+        callbacks = new ArrayList<>();
+        callbacks.add(callback);
+        pendingCallbacks.put(cacheKey, callbacks);
+        try {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    Bitmap icon = null;
+                    try {
+                        icon = adapter.decodeIcon(key, width, height);
+                    } catch (RuntimeException e) {
+                        //解码失败时按没有图标处理，不能让异常结束线程池中的线程
+                    } catch (OutOfMemoryError e) {
+                        //内存不足时放弃这个图标
+                    } finally {
+                        postResult(key, cacheKey, icon);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //线程池已满或已关闭时按没有图标处理，同样清除等待中的回调，之后还可以再次加载
+            postResult(key, cacheKey, null);
+        }
+    }
+
+    /**
+     * 在主线程中放入缓存并通知所有等待的回调，解码失败时icon为null
+     */
+    private void postResult(final String key, final String cacheKey, final Bitmap icon) {
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (icon != null) {
+                    cache.put(cacheKey, icon);
+                }
+                List<Callback> callbacks = pendingCallbacks.remove(cacheKey);
+                if (callbacks != null) {
+                    for (Callback callback : callbacks) {
+                        callback.onIconLoaded(key, icon);
+                    }
+                }
+            }
+        });
+    }
+
+    private Executor getExecutor() {
+        if (executor != null) {
+            return executor;
+        }
+        synchronized (IconCache.class) {
+            if (defaultExecutor == null) {
+                defaultExecutor = Executors.newFixedThreadPool(2);
+            }
+            return defaultExecutor;
+        }
+    }
+
+    private String getCacheKey(String key, int width, int height) {
+        return key + '@' + width + 'x' + height;
+    }
+
+    /**
+     * 按需要的尺寸采样解码图片资源，避免解码原图
+     *
+     * @param res
+     * @param resId
+     * @param reqWidth
+     * @param reqHeight
+     * @return
+     */
+    public static Bitmap decodeSampledResource(Resources res, int resId, int reqWidth, int reqHeight) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(res, resId, options);
+        int inSampleSize = 1;
+        if (reqWidth > 0 && reqHeight > 0) {
+            while (options.outWidth / (inSampleSize * 2) >= reqWidth && options.outHeight / (inSampleSize * 2) >= reqHeight) {
+                inSampleSize *= 2;
+            }
+        }
+        options.inSampleSize = inSampleSize;
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeResource(res, resId, options);
+    }
+
+    interface Callback {
+        /**
+         * @param icon 解码失败时为null
+         */
+        void onIconLoaded(String key, Bitmap icon);
+    }
+}
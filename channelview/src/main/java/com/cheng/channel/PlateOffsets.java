@@ -0,0 +1,78 @@
+package com.cheng.channel;
+
+import java.util.Arrays;
+
+/**
+ * 各板块的高度，使用树状数组保存，
+ * 修改某个板块的高度、查询板块的y坐标和总高度都是O(log n)
+ */
+class PlateOffsets {
+    /**
+     * 树状数组，下标从1开始
+     */
+    private int[] tree = new int[16];
+
+    /**
+     * 每个板块的高度
+     */
+    private int[] heights = new int[16];
+
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 在尾部追加一个板块
+     */
+    void append(int height) {
+        if (size + 1 >= tree.length) {
+            tree = Arrays.copyOf(tree, tree.length * 2);
+            heights = Arrays.copyOf(heights, heights.length * 2);
+        }
+        heights[size] = height;
+        size++;
+        //新节点覆盖(size - lowbit(size), size]，等于这段已有板块的高度加上新板块的高度
+        tree[size] = height + prefix(size - 1) - prefix(size - (size & -size));
+    }
+
+    int get(int j) {
+        return heights[j];
+    }
+
+    /**
+     * 设置板块高度
+     *
+     * @return 高度是否变化
+     */
+    boolean set(int j, int height) {
+        int delta = height - heights[j];
+        if (delta == 0) {
+            return false;
+        }
+        heights[j] = height;
+        for (int i = j + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+        return true;
+    }
+
+    /**
+     * 前count个板块的高度之和，即第count个板块的y坐标
+     */
+    int prefix(int count) {
+        int sum = 0;
+        for (int i = Math.min(count, size); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 所有板块的高度之和
+     */
+    int total() {
+        return prefix(size);
+    }
+}
@@ -0,0 +1,28 @@
+package com.cheng.channel;
+
+/**
+ * 分页加载时板块的加载状态
+ */
+class PlatePage {
+    /**
+     * 板块名称
+     */
+    String plateName;
+
+    /**
+     * 已从数据源中加载的频道数量
+     */
+    int loadedCount;
+
+    /**
+     * 板块频道总数
+     */
+    int totalCount;
+
+    /**
+     * 未加载的频道数量，用于预留占位
+     */
+    int getPendingCount() {
+        return totalCount > loadedCount ? totalCount - loadedCount : 0;
+    }
+}
@@ -0,0 +1,163 @@
+package com.cheng.channel;
+
+import android.os.Build;
+import android.view.Choreographer;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * 弹簧动画，每个频道只有一个弹簧，目标位置为{@link ChannelAttr#coordinate}。
+ * 动画进行中修改目标位置时不会重新创建动画，而是沿用当前速度继续运动，快速来回排序时不会跳动。
+ * 所有弹簧在同一个帧回调中计算，重新设置目标位置不会创建对象
+ */
+class SpringMover {
+    /**
+     * API 16以下没有Choreographer，使用属性动画，时长与ChannelView的动画一致
+     */
+    private static final int FALLBACK_DURATION = 200;
+
+    /**
+     * 刚度，单位1/s²
+     */
+    private static final float STIFFNESS = 600f;
+
+    /**
+     * 阻尼比，略小于1，有轻微的回弹
+     */
+    private static final float DAMPING_RATIO = 0.85f;
+
+    private static final float DAMPING = (float) (2 * DAMPING_RATIO * Math.sqrt(STIFFNESS));
+
+    /**
+     * 每次积分的最大时间步长，保证数值稳定
+     */
+    private static final float MAX_STEP = 0.004f;
+
+    /**
+     * 单帧最大时间，避免掉帧后跳跃过大
+     */
+    private static final float MAX_FRAME_TIME = 1 / 30f;
+
+    /**
+     * 距离目标小于该值（px）且速度小于REST_VELOCITY（px/s）时停止
+     */
+    private static final float REST_DISTANCE = 0.5f;
+
+    private static final float REST_VELOCITY = 10f;
+
+    private final ArrayList<View> views = new ArrayList<>();
+
+    private final ArrayList<ChannelAttr> attrs = new ArrayList<>();
+
+    private Choreographer.FrameCallback frameCallback;
+
+    private long lastFrameTimeNanos;
+
+    private boolean isRunning;
+
+    /**
+     * 弹簧运动到attr.coordinate，已经在运动时只更新目标位置
+     */
+    void animateTo(View view, ChannelAttr attr) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            view.animate().x(attr.coordinate.x).y(attr.coordinate.y).setDuration(FALLBACK_DURATION);
+            return;
+        }
+        if (!attr.isSpringRunning) {
+            view.animate().cancel();
+            attr.isSpringRunning = true;
+            views.add(view);
+            attrs.add(attr);
+        }
+        if (!isRunning) {
+            isRunning = true;
+            lastFrameTimeNanos = 0;
+            if (frameCallback == null) {
+                frameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        step(frameTimeNanos);
+                    }
+                };
+            }
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    /**
+     * 正在运动的弹簧数量
+     */
+    int getRunningCount() {
+        return views.size();
+    }
+
+    /**
+     * 停止该频道的弹簧，频道停在当前位置
+     */
+    void cancel(View view) {
+        int index = views.indexOf(view);
+        if (index >= 0) {
+            stop(attrs.get(index));
+            views.remove(index);
+            attrs.remove(index);
+        }
+    }
+
+    /**
+     * 停止所有弹簧，频道停在当前位置
+     */
+    void cancelAll() {
+        for (int i = 0; i < attrs.size(); i++) {
+            stop(attrs.get(i));
+        }
+        views.clear();
+        attrs.clear();
+        if (isRunning) {
+            isRunning = false;
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+        }
+    }
+
+    private void step(long frameTimeNanos) {
+        float frameTime = lastFrameTimeNanos == 0 ? 0.016f : Math.min((frameTimeNanos - lastFrameTimeNanos) / 1e9f, MAX_FRAME_TIME);
+        lastFrameTimeNanos = frameTimeNanos;
+        for (int i = views.size() - 1; i >= 0; i--) {
+            View view = views.get(i);
+            ChannelAttr attr = attrs.get(i);
+            float x = view.getX();
+            float y = view.getY();
+            float remain = frameTime;
+            while (remain > 0) {
+                float dt = Math.min(remain, MAX_STEP);
+                remain -= dt;
+                attr.velocityX += (-STIFFNESS * (x - attr.coordinate.x) - DAMPING * attr.velocityX) * dt;
+                attr.velocityY += (-STIFFNESS * (y - attr.coordinate.y) - DAMPING * attr.velocityY) * dt;
+                x += attr.velocityX * dt;
+                y += attr.velocityY * dt;
+            }
+            if (Math.abs(x - attr.coordinate.x) < REST_DISTANCE && Math.abs(y - attr.coordinate.y) < REST_DISTANCE
+                    && Math.abs(attr.velocityX) < REST_VELOCITY && Math.abs(attr.velocityY) < REST_VELOCITY) {
+                view.setX(attr.coordinate.x);
+                view.setY(attr.coordinate.y);
+                stop(attr);
+                views.remove(i);
+                attrs.remove(i);
+            } else {
+                view.setX(x);
+                view.setY(y);
+            }
+        }
+        if (views.isEmpty()) {
+            isRunning = false;
+        } else {
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+    }
+
+    private void stop(ChannelAttr attr) {
+        attr.isSpringRunning = false;
+        attr.velocityX = 0;
+        attr.velocityY = 0;
+    }
+}
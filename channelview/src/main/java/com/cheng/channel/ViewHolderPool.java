@@ -0,0 +1,71 @@
+package com.cheng.channel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 可在多个ChannelView之间共享的ViewHolder缓存池，按适配器类型区分。
+ * ChannelView从窗口移除时（不包括ListView等临时移除子View的情况）将频道ViewHolder放回缓存池，新的ChannelView创建频道时优先从缓存池中获取。
+ * 只有实现了{@link com.cheng.channel.adapter.RecyclableStyleAdapter}的适配器才会复用。
+ * <p>
+ * 缓存的View持有创建时的Context，作用域应与创建View时使用的Context一致，例如在Activity中创建的View只在该Activity内共享
+ */
+public class ViewHolderPool {
+    private static final int DEFAULT_MAX_SCRAP = 200;
+
+    private Map<Class<?>, ArrayList<ViewHolder>> scrapHeaps = new HashMap<>();
+
+    private int maxScrap = DEFAULT_MAX_SCRAP;
+
+    /**
+     * 设置每种适配器类型最多缓存的ViewHolder数量
+     *
+     * @param maxScrap
+     */
+    public void setMaxRecycledViews(int maxScrap) {
+        this.maxScrap = maxScrap;
+        for (ArrayList<ViewHolder> scrapHeap : scrapHeaps.values()) {
+            while (scrapHeap.size() > maxScrap) {
+                scrapHeap.remove(scrapHeap.size() - 1);
+            }
+        }
+    }
+
+    /**
+     * 获取该适配器类型缓存的数量
+     *
+     * @param adapterType
+     * @return
+     */
+    public int getRecycledViewCount(Class<?> adapterType) {
+        ArrayList<ViewHolder> scrapHeap = scrapHeaps.get(adapterType);
+        return scrapHeap == null ? 0 : scrapHeap.size();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        scrapHeaps.clear();
+    }
+
+    ViewHolder getRecycledView(Class<?> adapterType) {
+        ArrayList<ViewHolder> scrapHeap = scrapHeaps.get(adapterType);
+        if (scrapHeap == null || scrapHeap.isEmpty()) {
+            return null;
+        }
+        return scrapHeap.remove(scrapHeap.size() - 1);
+    }
+
+    void putRecycledView(Class<?> adapterType, ViewHolder viewHolder) {
+        ArrayList<ViewHolder> scrapHeap = scrapHeaps.get(adapterType);
+        if (scrapHeap == null) {
+            scrapHeap = new ArrayList<>();
+            scrapHeaps.put(adapterType, scrapHeap);
+        }
+        if (scrapHeap.size() < maxScrap) {
+            scrapHeap.add(viewHolder);
+        }
+    }
+}
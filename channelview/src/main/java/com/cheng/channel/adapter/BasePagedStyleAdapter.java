@@ -0,0 +1,19 @@
+package com.cheng.channel.adapter;
+
+import com.cheng.channel.Channel;
+import com.cheng.channel.ViewHolder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+public abstract class BasePagedStyleAdapter<VH extends ViewHolder> extends BaseStyleAdapter<VH> implements PagedStyleAdapter<VH> {
+    @Override
+    public LinkedHashMap<String, List<Channel>> getChannelData() {
+        return null;
+    }
+
+    @Override
+    public int getPageSize() {
+        return 40;
+    }
+}
@@ -1,6 +1,7 @@
 package com.cheng.channel.adapter;
 
 import com.cheng.channel.Channel;
+import com.cheng.channel.ChannelDelta;
 import com.cheng.channel.ChannelView;
 
 import java.util.List;
@@ -8,7 +9,7 @@ import java.util.List;
 /**
  * 抽象监听器，可针对性进行监听事件
  */
-public abstract class ChannelListenerAdapter implements ChannelView.OnChannelListener2 {
+public abstract class ChannelListenerAdapter implements ChannelView.OnChannelListener4 {
     @Override
     public void channelItemClick(int position, Channel channel) {
 
@@ -28,4 +29,14 @@ public abstract class ChannelListenerAdapter implements ChannelView.OnChannelLis
     public void channelEditStart() {
 
     }
+
+    @Override
+    public void channelEditDelta(ChannelDelta channelDelta) {
+
+    }
+
+    @Override
+    public void channelDataLoadFailed(RuntimeException e) {
+
+    }
 }
@@ -0,0 +1,37 @@
+package com.cheng.channel.adapter;
+
+import android.graphics.Bitmap;
+
+import com.cheng.channel.ViewHolder;
+
+/**
+ * 带图标的频道适配器，图标不在{@link StyleAdapter#createStyleView}中解码，
+ * 而是由ChannelView按频道尺寸在后台线程中解码，可见的频道优先加载，解码结果缓存在{@link com.cheng.channel.IconCache}中
+ */
+public interface IconStyleAdapter<VH extends ViewHolder> extends StyleAdapter<VH> {
+    /**
+     * 获取频道图标的key，相同key的图标只会解码一次
+     *
+     * @param channelName 频道名称
+     * @return 没有图标时返回null
+     */
+    String getIconKey(String channelName);
+
+    /**
+     * 解码图标，在后台线程中调用，可使用{@link com.cheng.channel.IconCache#decodeSampledResource}按尺寸采样解码
+     *
+     * @param iconKey   图标key
+     * @param reqWidth  频道宽度
+     * @param reqHeight 频道高度
+     * @return
+     */
+    Bitmap decodeIcon(String iconKey, int reqWidth, int reqHeight);
+
+    /**
+     * 设置频道图标，在主线程中调用
+     *
+     * @param viewHolder
+     * @param icon
+     */
+    void bindIcon(VH viewHolder, Bitmap icon);
+}
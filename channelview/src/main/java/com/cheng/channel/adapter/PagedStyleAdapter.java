@@ -0,0 +1,56 @@
+package com.cheng.channel.adapter;
+
+import com.cheng.channel.Channel;
+import com.cheng.channel.ViewHolder;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * 分页加载的频道适配器，板块以及板块中的频道会在滑动到已加载内容底部附近时按页请求，
+ * 未加载的频道会按照板块频道数量预留占位高度，避免滑动范围跳动。
+ * 使用该适配器时不会调用{@link StyleAdapter#getChannelData()}，我的频道板块会在第一屏时连续加载完成
+ */
+public interface PagedStyleAdapter<VH extends ViewHolder> extends StyleAdapter<VH> {
+    /**
+     * 每页请求的数量
+     *
+     * @return
+     */
+    int getPageSize();
+
+    /**
+     * 请求板块
+     *
+     * @param start    起始板块位置
+     * @param count    请求板块数量
+     * @param callback 加载完成回调，可在任意线程中回调
+     */
+    void loadPlates(int start, int count, PlateCallback callback);
+
+    /**
+     * 请求板块中的频道
+     *
+     * @param plateIndex 板块位置
+     * @param plateName  板块名称
+     * @param start      起始频道位置
+     * @param count      请求频道数量，返回数量少于该值时认为该板块已加载完
+     * @param callback   加载完成回调，可在任意线程中回调
+     */
+    void loadChannels(int plateIndex, String plateName, int start, int count, ChannelCallback callback);
+
+    interface PlateCallback {
+        /**
+         * @param plates     本页板块，key为板块名称，value为该板块的频道总数（用于预留占位高度）
+         * @param totalCount 板块总数
+         */
+        void onPlatesLoaded(LinkedHashMap<String, Integer> plates, int totalCount);
+    }
+
+    interface ChannelCallback {
+        /**
+         * @param channels 本页频道
+         */
+        void onChannelsLoaded(List<Channel> channels);
+    }
+}
@@ -0,0 +1,24 @@
+package com.cheng.channel.adapter;
+
+import com.cheng.channel.ViewHolder;
+
+/**
+ * 可复用频道View的适配器，配合{@link com.cheng.channel.ViewHolderPool}使用，
+ * 复用的ViewHolder不会再调用{@link StyleAdapter#createStyleView}，而是通过{@link #bindStyleView}重新绑定频道名称
+ */
+public interface RecyclableStyleAdapter<VH extends ViewHolder> extends StyleAdapter<VH> {
+    /**
+     * 为复用的ViewHolder绑定频道名称，样式会在之后通过setNormalStyle等方法重新设置
+     *
+     * @param viewHolder
+     * @param channelName 频道名称
+     */
+    void bindStyleView(VH viewHolder, String channelName);
+
+    /**
+     * ViewHolder放回缓存池之前调用，重置图标、文字和样式等状态，避免复用后在重新绑定前显示旧的内容
+     *
+     * @param viewHolder
+     */
+    void recycleStyleView(VH viewHolder);
+}
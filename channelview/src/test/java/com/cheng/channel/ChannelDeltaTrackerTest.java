@@ -0,0 +1,227 @@
+package com.cheng.channel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 验证ChannelDeltaTracker计算的变化可以还原当前的我的频道，并且移动数量最少
+ */
+public class ChannelDeltaTrackerTest {
+    private static List<Channel> channels(int count) {
+        List<Channel> channels = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            channels.add(new Channel("c" + i));
+        }
+        return channels;
+    }
+
+    /**
+     * 按ChannelDelta的说明应用到基准上
+     */
+    private static List<Channel> apply(List<Channel> base, ChannelDelta delta) {
+        List<Channel> result = new ArrayList<>(base);
+        for (Channel channel : delta.getRemoved()) {
+            result.remove(channel);
+        }
+        for (ChannelDelta.Entry entry : delta.getMoves()) {
+            result.remove(entry.getChannel());
+        }
+        List<ChannelDelta.Entry> inserts = new ArrayList<>(delta.getAdded());
+        inserts.addAll(delta.getMoves());
+        Collections.sort(inserts, new Comparator<ChannelDelta.Entry>() {
+            @Override
+            public int compare(ChannelDelta.Entry x, ChannelDelta.Entry y) {
+                return x.getPosition() - y.getPosition();
+            }
+        });
+        for (ChannelDelta.Entry entry : inserts) {
+            result.add(entry.getPosition(), entry.getChannel());
+        }
+        return result;
+    }
+
+    /**
+     * 逐个比较的最长递增子序列长度，O(n²)
+     */
+    private static int lisLength(int[] values) {
+        int best = 0;
+        int[] lengths = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            lengths[i] = 1;
+            for (int k = 0; k < i; k++) {
+                if (values[k] < values[i]) {
+                    lengths[i] = Math.max(lengths[i], lengths[k] + 1);
+                }
+            }
+            best = Math.max(best, lengths[i]);
+        }
+        return best;
+    }
+
+    @Test
+    public void noChange() {
+        List<Channel> base = channels(5);
+        ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+        tracker.reset(base);
+        assertTrue(tracker.build(base).isEmpty());
+    }
+
+    @Test
+    public void singleMove() {
+        List<Channel> base = channels(6);
+        ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+        tracker.reset(base);
+        List<Channel> now = new ArrayList<>(base);
+        now.add(4, now.remove(0));
+        ChannelDelta delta = tracker.build(now);
+        assertEquals(1, delta.getMoves().size());
+        assertSame(base.get(0), delta.getMoves().get(0).getChannel());
+        assertEquals(4, delta.getMoves().get(0).getPosition());
+        assertEquals(now, apply(base, delta));
+    }
+
+    @Test
+    public void addThenRemoveCancels() {
+        List<Channel> base = channels(3);
+        ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+        tracker.reset(base);
+        Channel other = new Channel("other");
+        tracker.onAdd(other);
+        tracker.onRemove(other);
+        tracker.onRemove(base.get(1));
+        tracker.onAdd(base.get(1));
+        assertTrue(tracker.build(base).isEmpty());
+    }
+
+    @Test
+    public void emptyBase() {
+        ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+        tracker.reset(new ArrayList<Channel>());
+        assertTrue(tracker.build(new ArrayList<Channel>()).isEmpty());
+        List<Channel> now = channels(2);
+        tracker.onAdd(now.get(0));
+        tracker.onAdd(now.get(1));
+        ChannelDelta delta = tracker.build(now);
+        assertEquals(2, delta.getAdded().size());
+        assertEquals(0, delta.getAdded().get(0).getPosition());
+        assertEquals(1, delta.getAdded().get(1).getPosition());
+        assertTrue(delta.getMoves().isEmpty());
+        assertTrue(delta.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void allRemoved() {
+        List<Channel> base = channels(4);
+        ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+        tracker.reset(base);
+        for (Channel channel : base) {
+            tracker.onRemove(channel);
+        }
+        ChannelDelta delta = tracker.build(new ArrayList<Channel>());
+        assertEquals(base, delta.getRemoved());
+        assertTrue(delta.getAdded().isEmpty());
+        assertTrue(delta.getMoves().isEmpty());
+        assertTrue(apply(base, delta).isEmpty());
+    }
+
+    @Test
+    public void reverseMovesAllButOne() {
+        List<Channel> base = channels(5);
+        ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+        tracker.reset(base);
+        List<Channel> now = new ArrayList<>(base);
+        Collections.reverse(now);
+        ChannelDelta delta = tracker.build(now);
+        assertEquals(4, delta.getMoves().size());
+        assertEquals(now, apply(base, delta));
+    }
+
+    @Test
+    public void addAndRemove() {
+        List<Channel> base = channels(4);
+        ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+        tracker.reset(base);
+        Channel added = new Channel("added");
+        List<Channel> now = new ArrayList<>(base);
+        now.remove(base.get(2));
+        tracker.onRemove(base.get(2));
+        now.add(1, added);
+        tracker.onAdd(added);
+        ChannelDelta delta = tracker.build(now);
+        assertEquals(Arrays.asList(base.get(2)), delta.getRemoved());
+        assertEquals(1, delta.getAdded().size());
+        assertSame(added, delta.getAdded().get(0).getChannel());
+        assertEquals(1, delta.getAdded().get(0).getPosition());
+        assertTrue(delta.getMoves().isEmpty());
+        assertEquals(now, apply(base, delta));
+    }
+
+    @Test
+    public void appendExtendsBase() {
+        List<Channel> base = channels(2);
+        ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+        tracker.reset(base);
+        Channel appended = new Channel("appended");
+        tracker.append(appended);
+        List<Channel> now = new ArrayList<>(base);
+        now.add(appended);
+        assertTrue(tracker.build(now).isEmpty());
+    }
+
+    @Test
+    public void permutationsUseMinimalMoves() {
+        Random random = new Random(0x5EED);
+        for (int round = 0; round < 500; round++) {
+            List<Channel> base = channels(random.nextInt(30));
+            ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+            tracker.reset(base);
+            List<Channel> now = new ArrayList<>(base);
+            Collections.shuffle(now, random);
+            ChannelDelta delta = tracker.build(now);
+            int[] basePositions = new int[now.size()];
+            for (int i = 0; i < now.size(); i++) {
+                basePositions[i] = base.indexOf(now.get(i));
+            }
+            //不移动的频道构成最长递增子序列
+            assertEquals(now.size() - lisLength(basePositions), delta.getMoves().size());
+            assertTrue(delta.getAdded().isEmpty());
+            assertTrue(delta.getRemoved().isEmpty());
+            assertEquals(now, apply(base, delta));
+        }
+    }
+
+    @Test
+    public void randomEditsRebuildCurrent() {
+        Random random = new Random(20181);
+        for (int round = 0; round < 300; round++) {
+            List<Channel> base = channels(random.nextInt(20));
+            List<Channel> others = channels(10);
+            ChannelDeltaTracker tracker = new ChannelDeltaTracker();
+            tracker.reset(base);
+            List<Channel> now = new ArrayList<>(base);
+            for (int step = 0; step < 30; step++) {
+                int op = random.nextInt(3);
+                if (op == 0 && !now.isEmpty()) {
+                    Channel channel = now.remove(random.nextInt(now.size()));
+                    tracker.onRemove(channel);
+                    others.add(channel);
+                } else if (op == 1 && !others.isEmpty()) {
+                    Channel channel = others.remove(random.nextInt(others.size()));
+                    now.add(random.nextInt(now.size() + 1), channel);
+                    tracker.onAdd(channel);
+                } else if (!now.isEmpty()) {
+                    now.add(random.nextInt(now.size()), now.remove(random.nextInt(now.size())));
+                }
+            }
+            assertEquals(now, apply(base, tracker.build(now)));
+        }
+    }
+}
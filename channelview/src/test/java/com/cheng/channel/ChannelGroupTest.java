@@ -0,0 +1,170 @@
+package com.cheng.channel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 以ArrayList为参照，验证ChannelGroup的按位置插入、删除和查找
+ */
+public class ChannelGroupTest {
+    @Test
+    public void addAndGet() {
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        Object a = new Object(), b = new Object(), c = new Object();
+        group.add(a);
+        group.add(0, b);
+        group.add(1, c);
+        assertEquals(3, group.size());
+        assertSame(b, group.get(0));
+        assertSame(c, group.get(1));
+        assertSame(a, group.get(2));
+        assertEquals(1, group.indexOf(c));
+    }
+
+    @Test
+    public void indexOfUsesIdentity() {
+        ChannelGroup<String> group = new ChannelGroup<>();
+        String a = new String("channel");
+        String b = new String("channel");
+        group.add(a);
+        group.add(b);
+        assertEquals(0, group.indexOf(a));
+        assertEquals(1, group.indexOf(b));
+        assertEquals(-1, group.indexOf(new String("channel")));
+        assertTrue(group.remove(b));
+        assertFalse(group.contains(b));
+        assertTrue(group.contains(a));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void addSameElementTwice() {
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        Object a = new Object();
+        group.add(a);
+        group.add(a);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getOutOfBounds() {
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        group.add(new Object());
+        group.get(1);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void addOutOfBounds() {
+        new ChannelGroup<>().add(1, new Object());
+    }
+
+    @Test
+    public void clearAndReuse() {
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        Object a = new Object();
+        group.add(a);
+        group.add(new Object());
+        group.clear();
+        assertEquals(0, group.size());
+        assertEquals(-1, group.indexOf(a));
+        group.add(a);
+        assertEquals(0, group.indexOf(a));
+    }
+
+    @Test
+    public void removeLastElement() {
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        Object a = new Object(), b = new Object(), c = new Object();
+        group.add(a);
+        group.add(b);
+        group.add(c);
+        assertSame(c, group.remove(group.size() - 1));
+        assertEquals(2, group.size());
+        assertSame(b, group.get(1));
+        assertEquals(-1, group.indexOf(c));
+        //删除后可以再次加入
+        group.add(c);
+        assertEquals(2, group.indexOf(c));
+    }
+
+    @Test
+    public void removeOnlyElement() {
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        Object a = new Object();
+        group.add(a);
+        assertTrue(group.remove(a));
+        assertEquals(0, group.size());
+        assertFalse(group.remove(a));
+        assertFalse(group.iterator().hasNext());
+        group.add(0, a);
+        assertSame(a, group.get(0));
+    }
+
+    @Test
+    public void removeFirstElement() {
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        Object a = new Object(), b = new Object();
+        group.add(a);
+        group.add(b);
+        assertSame(a, group.remove(0));
+        assertEquals(0, group.indexOf(b));
+    }
+
+    @Test
+    public void iteratorInOrder() {
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        List<Object> expected = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Object value = new Object();
+            group.add(i / 2, value);
+            expected.add(i / 2, value);
+        }
+        Iterator<Object> iterator = group.iterator();
+        for (Object value : expected) {
+            assertSame(value, iterator.next());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void randomOperationsMatchArrayList() {
+        Random random = new Random(1000003);
+        ChannelGroup<Object> group = new ChannelGroup<>();
+        List<Object> expected = new ArrayList<>();
+        for (int step = 0; step < 20000; step++) {
+            int op = random.nextInt(10);
+            if (op < 4 || expected.isEmpty()) {
+                int index = random.nextInt(expected.size() + 1);
+                Object value = new Object();
+                group.add(index, value);
+                expected.add(index, value);
+            } else if (op < 6) {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.remove(index), group.remove(index));
+            } else if (op < 7) {
+                Object value = expected.remove(random.nextInt(expected.size()));
+                assertTrue(group.remove(value));
+            } else if (op < 8) {
+                //拖拽排序：删除后插入到新位置
+                Object value = expected.remove(random.nextInt(expected.size()));
+                group.remove(value);
+                int index = random.nextInt(expected.size() + 1);
+                expected.add(index, value);
+                group.add(index, value);
+            } else {
+                int index = random.nextInt(expected.size());
+                assertSame(expected.get(index), group.get(index));
+                assertEquals(index, group.indexOf(expected.get(index)));
+            }
+            assertEquals(expected.size(), group.size());
+        }
+        for (int i = 0; i < expected.size(); i++) {
+            assertSame(expected.get(i), group.get(i));
+            assertEquals(i, group.indexOf(expected.get(i)));
+        }
+    }
+}
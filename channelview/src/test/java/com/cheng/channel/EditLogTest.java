@@ -0,0 +1,174 @@
+package com.cheng.channel;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 验证EditLog的环形缓冲区、撤销重做以及同一次拖拽的合并
+ */
+public class EditLogTest {
+    private static void assertOp(EditLog log, int slot, Channel channel, int fromGroup, int fromIndex, int toGroup, int toIndex) {
+        assertSame(channel, log.getChannel(slot));
+        assertEquals(fromGroup, log.getFromGroup(slot));
+        assertEquals(fromIndex, log.getFromIndex(slot));
+        assertEquals(toGroup, log.getToGroup(slot));
+        assertEquals(toIndex, log.getToIndex(slot));
+    }
+
+    @Test
+    public void undoRedoInOrder() {
+        EditLog log = new EditLog(8);
+        Channel a = new Channel("a"), b = new Channel("b");
+        assertFalse(log.canUndo());
+        log.record(a, 0, 1, 1, 0, false);
+        log.record(b, 1, 3, 0, 2, false);
+        assertTrue(log.canUndo());
+        assertFalse(log.canRedo());
+        assertOp(log, log.undo(), b, 1, 3, 0, 2);
+        assertOp(log, log.undo(), a, 0, 1, 1, 0);
+        assertFalse(log.canUndo());
+        assertOp(log, log.redo(), a, 0, 1, 1, 0);
+        assertOp(log, log.redo(), b, 1, 3, 0, 2);
+        assertFalse(log.canRedo());
+    }
+
+    @Test
+    public void recordAfterUndoDropsRedo() {
+        EditLog log = new EditLog(8);
+        Channel a = new Channel("a"), b = new Channel("b"), c = new Channel("c");
+        log.record(a, 0, 0, 1, 0, false);
+        log.record(b, 0, 1, 1, 0, false);
+        log.undo();
+        assertTrue(log.canRedo());
+        log.record(c, 1, 2, 0, 0, false);
+        assertFalse(log.canRedo());
+        assertOp(log, log.undo(), c, 1, 2, 0, 0);
+        assertOp(log, log.undo(), a, 0, 0, 1, 0);
+        assertFalse(log.canUndo());
+    }
+
+    @Test
+    public void wrapAroundKeepsLatest() {
+        int capacity = 4;
+        EditLog log = new EditLog(capacity);
+        Channel[] channels = new Channel[10];
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = new Channel("c" + i);
+            log.record(channels[i], 0, i, 1, i, false);
+        }
+        //只保留最后capacity条
+        for (int i = channels.length - 1; i >= channels.length - capacity; i--) {
+            assertTrue(log.canUndo());
+            assertOp(log, log.undo(), channels[i], 0, i, 1, i);
+        }
+        assertFalse(log.canUndo());
+        for (int i = channels.length - capacity; i < channels.length; i++) {
+            assertOp(log, log.redo(), channels[i], 0, i, 1, i);
+        }
+        assertFalse(log.canRedo());
+    }
+
+    @Test
+    public void fillExactlyToCapacity() {
+        EditLog log = new EditLog(3);
+        Channel a = new Channel("a"), b = new Channel("b"), c = new Channel("c"), d = new Channel("d");
+        log.record(a, 0, 0, 1, 0, false);
+        log.record(b, 0, 1, 1, 1, false);
+        log.record(c, 0, 2, 1, 2, false);
+        //刚好写满时不丢弃记录
+        assertOp(log, log.undo(), c, 0, 2, 1, 2);
+        assertOp(log, log.undo(), b, 0, 1, 1, 1);
+        assertOp(log, log.undo(), a, 0, 0, 1, 0);
+        assertFalse(log.canUndo());
+        log.redo();
+        log.redo();
+        log.redo();
+        assertFalse(log.canRedo());
+        //再写入一条时覆盖最早的记录
+        log.record(d, 1, 0, 0, 3, false);
+        assertOp(log, log.undo(), d, 1, 0, 0, 3);
+        assertOp(log, log.undo(), c, 0, 2, 1, 2);
+        assertOp(log, log.undo(), b, 0, 1, 1, 1);
+        assertFalse(log.canUndo());
+    }
+
+    @Test
+    public void capacityOne() {
+        EditLog log = new EditLog(1);
+        Channel a = new Channel("a"), b = new Channel("b");
+        log.record(a, 0, 0, 1, 0, false);
+        log.record(b, 1, 0, 0, 0, false);
+        assertOp(log, log.undo(), b, 1, 0, 0, 0);
+        assertFalse(log.canUndo());
+        assertOp(log, log.redo(), b, 1, 0, 0, 0);
+    }
+
+    @Test
+    public void wrapAroundAfterUndo() {
+        EditLog log = new EditLog(3);
+        Channel[] channels = new Channel[5];
+        for (int i = 0; i < channels.length; i++) {
+            channels[i] = new Channel("c" + i);
+        }
+        log.record(channels[0], 0, 0, 0, 1, false);
+        log.record(channels[1], 0, 1, 0, 2, false);
+        log.record(channels[2], 0, 2, 0, 3, false);
+        log.undo();
+        log.undo();
+        //撤销后的记录被丢弃，不会因为容量满而丢弃最早的记录
+        log.record(channels[3], 0, 3, 0, 4, false);
+        log.record(channels[4], 0, 4, 0, 5, false);
+        assertOp(log, log.undo(), channels[4], 0, 4, 0, 5);
+        assertOp(log, log.undo(), channels[3], 0, 3, 0, 4);
+        assertOp(log, log.undo(), channels[0], 0, 0, 0, 1);
+        assertFalse(log.canUndo());
+    }
+
+    @Test
+    public void mergeSameDrag() {
+        EditLog log = new EditLog(8);
+        Channel a = new Channel("a");
+        assertTrue(log.record(a, 0, 2, 0, 3, false));
+        assertTrue(log.record(a, 0, 3, 0, 5, true));
+        assertOp(log, log.undo(), a, 0, 2, 0, 5);
+        assertFalse(log.canUndo());
+    }
+
+    @Test
+    public void dragBackToStartDropsEntry() {
+        EditLog log = new EditLog(8);
+        Channel a = new Channel("a"), b = new Channel("b");
+        log.record(b, 0, 0, 0, 1, false);
+        assertTrue(log.record(a, 0, 2, 0, 4, false));
+        assertFalse(log.record(a, 0, 4, 0, 2, true));
+        assertOp(log, log.undo(), b, 0, 0, 0, 1);
+        assertFalse(log.canUndo());
+    }
+
+    @Test
+    public void noMergeAcrossPlatesOrChannels() {
+        EditLog log = new EditLog(8);
+        Channel a = new Channel("a"), b = new Channel("b");
+        log.record(a, 0, 1, 0, 2, false);
+        log.record(b, 0, 2, 0, 3, true);
+        log.record(b, 0, 3, 1, 0, true);
+        assertOp(log, log.undo(), b, 0, 3, 1, 0);
+        assertOp(log, log.undo(), b, 0, 2, 0, 3);
+        assertOp(log, log.undo(), a, 0, 1, 0, 2);
+    }
+
+    @Test
+    public void clear() {
+        EditLog log = new EditLog(2);
+        log.record(new Channel("a"), 0, 0, 1, 0, false);
+        log.record(new Channel("b"), 0, 0, 1, 0, false);
+        log.record(new Channel("c"), 0, 0, 1, 0, false);
+        log.clear();
+        assertFalse(log.canUndo());
+        assertFalse(log.canRedo());
+        Channel d = new Channel("d");
+        log.record(d, 1, 0, 0, 0, false);
+        assertOp(log, log.undo(), d, 1, 0, 0, 0);
+    }
+}
@@ -0,0 +1,302 @@
+package com.cheng.channel;
+
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+
+import java.util.Arrays;
+
+/**
+ * 在ChannelView上按原来的时间间隔重放{@link GestureTrace}中的{@link GestureTrace#SOURCE_VIEW}事件，
+ * 统计每个事件的处理耗时、当时进行中的动画数量以及重放期间的帧间隔。
+ * ChannelView需要已经添加到窗口中，尺寸与录制时一致，并使用{@link GestureTrace#createChannelData()}和录制时的列数填充数据。
+ * 需要在主线程中使用，在Robolectric中通过推进主线程Looper的时间完成重放
+ */
+public class GestureTraceReplayer {
+    private final ChannelView channelView;
+
+    private final GestureTrace trace;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private Callback callback;
+
+    private Report report;
+
+    /**
+     * 下一个需要重放的事件
+     */
+    private int next;
+
+    /**
+     * 开始重放的时间
+     */
+    private long startTime;
+
+    private long downTime;
+
+    private boolean isReplaying;
+
+    private long lastFrameTimeNanos;
+
+    private Choreographer.FrameCallback frameCallback;
+
+    private Runnable replayRunnable = new Runnable() {
+        @Override
+        public void run() {
+            replayNext();
+        }
+    };
+
+    private Runnable finishRunnable = new Runnable() {
+        @Override
+        public void run() {
+            finish();
+        }
+    };
+
+    public GestureTraceReplayer(ChannelView channelView, GestureTrace trace) {
+        this.channelView = channelView;
+        this.trace = trace;
+    }
+
+    /**
+     * 开始重放
+     *
+     * @param callback 重放结束后回调
+     */
+    public void start(Callback callback) {
+        if (isReplaying) {
+            return;
+        }
+        if (trace.getViewWidth() != channelView.getWidth() || trace.getViewHeight() != channelView.getHeight()) {
+            throw new RuntimeException("ChannelView的尺寸与录制时不一致：" + channelView.getWidth() + "x" + channelView.getHeight()
+                    + "，录制时为" + trace.getViewWidth() + "x" + trace.getViewHeight());
+        }
+        //从录制时的滑动位置开始
+        channelView.scrollTo(0, trace.getScrollY());
+        this.callback = callback;
+        int count = 0;
+        for (int i = 0; i < trace.getEventCount(); i++) {
+            if (trace.getSource(i) == GestureTrace.SOURCE_VIEW) {
+                count++;
+            }
+        }
+        report = new Report(count);
+        next = 0;
+        isReplaying = true;
+        startTime = SystemClock.uptimeMillis();
+        lastFrameTimeNanos = 0;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            if (frameCallback == null) {
+                frameCallback = new Choreographer.FrameCallback() {
+                    @Override
+                    public void doFrame(long frameTimeNanos) {
+                        onFrame(frameTimeNanos);
+                    }
+                };
+            }
+            Choreographer.getInstance().postFrameCallback(frameCallback);
+        }
+        scheduleNext();
+    }
+
+    /**
+     * 停止重放，不会回调
+     */
+    public void cancel() {
+        if (!isReplaying) {
+            return;
+        }
+        isReplaying = false;
+        handler.removeCallbacks(replayRunnable);
+        handler.removeCallbacks(finishRunnable);
+        if (frameCallback != null) {
+            Choreographer.getInstance().removeFrameCallback(frameCallback);
+        }
+    }
+
+    private void scheduleNext() {
+        while (next < trace.getEventCount() && trace.getSource(next) != GestureTrace.SOURCE_VIEW) {
+            next++;
+        }
+        if (next < trace.getEventCount()) {
+            handler.postAtTime(replayRunnable, startTime + trace.getTime(next));
+        } else {
+            //等待最后一个事件引起的动画结束
+            handler.postDelayed(finishRunnable, 500);
+        }
+    }
+
+    private void replayNext() {
+        if (!isReplaying) {
+            return;
+        }
+        int action = trace.getAction(next);
+        long eventTime = startTime + trace.getTime(next);
+        if (action == MotionEvent.ACTION_DOWN) {
+            downTime = eventTime;
+        }
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, trace.getX(next), trace.getY(next), 0);
+        long start = System.nanoTime();
+        channelView.dispatchTouchEvent(event);
+        report.add(action, System.nanoTime() - start, channelView.getRunningAnimatorCount());
+        event.recycle();
+        next++;
+        scheduleNext();
+    }
+
+    private void onFrame(long frameTimeNanos) {
+        if (!isReplaying) {
+            return;
+        }
+        if (lastFrameTimeNanos != 0) {
+            report.addFrame(frameTimeNanos - lastFrameTimeNanos, channelView.getRunningAnimatorCount());
+        }
+        lastFrameTimeNanos = frameTimeNanos;
+        Choreographer.getInstance().postFrameCallback(frameCallback);
+    }
+
+    private void finish() {
+        if (!isReplaying) {
+            return;
+        }
+        cancel();
+        if (callback != null) {
+            callback.onReplayFinished(report);
+        }
+    }
+
+    public interface Callback {
+        void onReplayFinished(Report report);
+    }
+
+    /**
+     * 重放结果
+     */
+    public static class Report {
+        private int eventCount;
+        private int[] actions;
+        private long[] eventCosts;
+        private int[] animatorCounts;
+
+        private int frameCount;
+        private long[] frameIntervals = new long[64];
+        private int maxAnimatorCount;
+
+        Report(int capacity) {
+            actions = new int[capacity];
+            eventCosts = new long[capacity];
+            animatorCounts = new int[capacity];
+        }
+
+        void add(int action, long cost, int animatorCount) {
+            actions[eventCount] = action;
+            eventCosts[eventCount] = cost;
+            animatorCounts[eventCount] = animatorCount;
+            eventCount++;
+            maxAnimatorCount = Math.max(maxAnimatorCount, animatorCount);
+        }
+
+        void addFrame(long interval, int animatorCount) {
+            if (frameCount == frameIntervals.length) {
+                frameIntervals = Arrays.copyOf(frameIntervals, frameCount * 2);
+            }
+            frameIntervals[frameCount++] = interval;
+            maxAnimatorCount = Math.max(maxAnimatorCount, animatorCount);
+        }
+
+        /**
+         * 重放的事件数量
+         */
+        public int getEventCount() {
+            return eventCount;
+        }
+
+        /**
+         * @return {@link MotionEvent#getActionMasked()}
+         */
+        public int getAction(int i) {
+            return actions[i];
+        }
+
+        /**
+         * 事件在dispatchTouchEvent中的耗时，单位ns
+         */
+        public long getEventCost(int i) {
+            return eventCosts[i];
+        }
+
+        /**
+         * 事件处理后进行中的动画数量
+         */
+        public int getAnimatorCount(int i) {
+            return animatorCounts[i];
+        }
+
+        public long getTotalEventCost() {
+            long total = 0;
+            for (int i = 0; i < eventCount; i++) {
+                total += eventCosts[i];
+            }
+            return total;
+        }
+
+        public long getMaxEventCost() {
+            long max = 0;
+            for (int i = 0; i < eventCount; i++) {
+                max = Math.max(max, eventCosts[i]);
+            }
+            return max;
+        }
+
+        /**
+         * 重放期间进行中的动画数量的最大值，包括每帧的统计
+         */
+        public int getMaxAnimatorCount() {
+            return maxAnimatorCount;
+        }
+
+        /**
+         * 重放期间的帧数，API 16以下为0
+         */
+        public int getFrameCount() {
+            return frameCount;
+        }
+
+        /**
+         * 与上一帧的间隔，单位ns
+         */
+        public long getFrameInterval(int i) {
+            return frameIntervals[i];
+        }
+
+        /**
+         * 帧间隔超过指定时间的帧数
+         *
+         * @param thresholdNanos 单位ns
+         */
+        public int getSlowFrameCount(long thresholdNanos) {
+            int count = 0;
+            for (int i = 0; i < frameCount; i++) {
+                if (frameIntervals[i] > thresholdNanos) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return "events=" + eventCount
+                    + ", totalEventCost=" + getTotalEventCost() / 1000 + "us"
+                    + ", maxEventCost=" + getMaxEventCost() / 1000 + "us"
+                    + ", maxAnimators=" + maxAnimatorCount
+                    + ", frames=" + frameCount
+                    + ", slowFrames=" + getSlowFrameCount(25000000L);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.cheng.channel;
+
+import android.app.Activity;
+import android.os.SystemClock;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 在ChannelView上录制手势，保存后重放到新的ChannelView上，比较两者的频道结果
+ */
+@RunWith(RobolectricTestRunner.class)
+public class GestureTraceReplayerTest {
+    private static final int COLUMN = 4;
+
+    private static final int[] PLATE_SIZES = {3, 6};
+
+    /**
+     * 超过Short.MAX_VALUE毫秒的停顿
+     */
+    private static final int LONG_PAUSE = 40000;
+
+    private static ChannelView createChannelView(final LinkedHashMap<String, List<Channel>> channelData) {
+        Activity activity = Robolectric.buildActivity(Activity.class).setup().get();
+        ChannelView channelView = new ChannelView(activity);
+        channelView.setChannelColumn(COLUMN);
+        channelView.setStyleAdapter(new DefaultStyleAdapter() {
+            @Override
+            public LinkedHashMap<String, List<Channel>> getChannelData() {
+                return channelData;
+            }
+        });
+        activity.setContentView(channelView);
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+        return channelView;
+    }
+
+    private static View findChannel(View view, String channelName) {
+        if (view instanceof TextView && channelName.equals(((TextView) view).getText().toString())) {
+            return view;
+        }
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                View found = findChannel(group.getChildAt(i), channelName);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 点击频道的中心，坐标为在ChannelView中的坐标
+     */
+    private static void tap(ChannelView channelView, String channelName, long downTime) {
+        View channel = findChannel(channelView, channelName);
+        assertNotNull(channelName, channel);
+        float x = channel.getX() + channel.getWidth() / 2f;
+        float y = channel.getY() + channel.getHeight() / 2f;
+        for (View parent = (View) channel.getParent(); parent != channelView; parent = (View) parent.getParent()) {
+            x += parent.getX();
+            y += parent.getY();
+        }
+        y -= channelView.getScrollY();
+        MotionEvent down = MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, x, y, 0);
+        channelView.dispatchTouchEvent(down);
+        down.recycle();
+        MotionEvent up = MotionEvent.obtain(downTime, downTime + 50, MotionEvent.ACTION_UP, x, y, 0);
+        channelView.dispatchTouchEvent(up);
+        up.recycle();
+    }
+
+    private static List<String> names(List<Channel> channels) {
+        List<String> names = new ArrayList<>();
+        for (Channel channel : channels) {
+            names.add(channel.getChannelName());
+        }
+        return names;
+    }
+
+    private static byte[] write(GestureTrace trace) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        trace.writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * 先点击板块1中的一个频道，停顿后再点击另一个
+     *
+     * @param myChannels 录制结束后我的频道的名称
+     */
+    private static GestureTrace record(List<String> myChannels) {
+        //与重放时相同的频道数据
+        ChannelView recorded = createChannelView(new GestureTrace(COLUMN, PLATE_SIZES, 0, 0, 0).createChannelData());
+        recorded.startGestureTrace();
+        long start = SystemClock.uptimeMillis();
+        tap(recorded, "1-0", start);
+        ShadowLooper.idleMainLooper(LONG_PAUSE, TimeUnit.MILLISECONDS);
+        tap(recorded, "1-3", start + LONG_PAUSE);
+        ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+        myChannels.addAll(names(recorded.getMyChannel()));
+        assertEquals(myChannels.toString(), PLATE_SIZES[0] + 2, myChannels.size());
+        return recorded.stopGestureTrace();
+    }
+
+    @Test
+    public void replayReachesRecordedChannels() throws IOException {
+        List<String> myChannels = new ArrayList<>();
+        GestureTrace recordedTrace = record(myChannels);
+        GestureTrace trace = GestureTrace.readFrom(new ByteArrayInputStream(write(recordedTrace)));
+        assertEquals(recordedTrace.getEventCount(), trace.getEventCount());
+        for (int i = 0; i < trace.getEventCount(); i++) {
+            assertEquals(recordedTrace.getTime(i), trace.getTime(i));
+        }
+        assertEquals(LONG_PAUSE, trace.getTime(trace.getEventCount() - 2) - trace.getTime(0));
+
+        ChannelView replayed = createChannelView(trace.createChannelData());
+        final GestureTraceReplayer.Report[] reports = new GestureTraceReplayer.Report[1];
+        new GestureTraceReplayer(replayed, trace).start(new GestureTraceReplayer.Callback() {
+            @Override
+            public void onReplayFinished(GestureTraceReplayer.Report report) {
+                reports[0] = report;
+            }
+        });
+        ShadowLooper.idleMainLooper(trace.getTime(trace.getEventCount() - 1) + 1000, TimeUnit.MILLISECONDS);
+        assertNotNull(reports[0]);
+        assertEquals(4, reports[0].getEventCount());
+        assertEquals(myChannels, names(replayed.getMyChannel()));
+    }
+
+    @Test
+    public void rejectOtherVersions() throws IOException {
+        byte[] bytes = write(new GestureTrace(COLUMN, PLATE_SIZES, 320, 480, 0));
+        //MAGIC之后是版本号
+        for (int version : new int[]{1, 3}) {
+            bytes[4] = (byte) version;
+            try {
+                GestureTrace.readFrom(new ByteArrayInputStream(bytes));
+                fail("version " + version);
+            } catch (IOException expected) {
+            }
+        }
+    }
+}
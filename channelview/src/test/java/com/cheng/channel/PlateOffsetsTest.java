@@ -0,0 +1,123 @@
+package com.cheng.channel;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 以逐个累加的高度为参照，验证PlateOffsets的前缀和
+ */
+public class PlateOffsetsTest {
+    @Test
+    public void empty() {
+        PlateOffsets offsets = new PlateOffsets();
+        assertEquals(0, offsets.size());
+        assertEquals(0, offsets.total());
+        assertEquals(0, offsets.prefix(3));
+    }
+
+    @Test
+    public void appendAndPrefix() {
+        PlateOffsets offsets = new PlateOffsets();
+        int[] heights = {40, 120, 0, 75, 300};
+        for (int height : heights) {
+            offsets.append(height);
+        }
+        int sum = 0;
+        for (int j = 0; j < heights.length; j++) {
+            assertEquals(sum, offsets.prefix(j));
+            assertEquals(heights[j], offsets.get(j));
+            sum += heights[j];
+        }
+        assertEquals(sum, offsets.total());
+        //超出板块数量时按所有板块计算
+        assertEquals(sum, offsets.prefix(heights.length + 10));
+    }
+
+    @Test
+    public void setReturnsWhetherChanged() {
+        PlateOffsets offsets = new PlateOffsets();
+        offsets.append(10);
+        offsets.append(20);
+        assertFalse(offsets.set(1, 20));
+        assertTrue(offsets.set(1, 25));
+        assertEquals(35, offsets.total());
+        assertTrue(offsets.set(0, 0));
+        assertEquals(0, offsets.prefix(1));
+        assertEquals(25, offsets.total());
+    }
+
+    @Test
+    public void setFirstAndLast() {
+        PlateOffsets offsets = new PlateOffsets();
+        for (int j = 0; j < 7; j++) {
+            offsets.append(10);
+        }
+        //第一个板块变化影响之后所有板块的位置
+        assertTrue(offsets.set(0, 15));
+        assertEquals(0, offsets.prefix(0));
+        for (int j = 1; j <= 7; j++) {
+            assertEquals(15 + (j - 1) * 10, offsets.prefix(j));
+        }
+        //最后一个板块变化只影响总高度
+        assertTrue(offsets.set(6, 3));
+        assertEquals(15 + 50, offsets.prefix(6));
+        assertEquals(15 + 50 + 3, offsets.total());
+        assertEquals(3, offsets.get(6));
+    }
+
+    @Test
+    public void singlePlate() {
+        PlateOffsets offsets = new PlateOffsets();
+        offsets.append(42);
+        assertEquals(0, offsets.prefix(0));
+        assertEquals(42, offsets.prefix(1));
+        assertTrue(offsets.set(0, 0));
+        assertEquals(0, offsets.total());
+    }
+
+    @Test
+    public void growBeyondInitialCapacity() {
+        PlateOffsets offsets = new PlateOffsets();
+        for (int j = 0; j < 100; j++) {
+            offsets.append(j + 1);
+            assertEquals((j + 1) * (j + 2) / 2, offsets.total());
+        }
+        assertEquals(100, offsets.size());
+        assertEquals(45 * 46 / 2, offsets.prefix(45));
+    }
+
+    @Test
+    public void randomUpdatesMatchLinearSums() {
+        Random random = new Random(97);
+        PlateOffsets offsets = new PlateOffsets();
+        List<Integer> expected = new ArrayList<>();
+        for (int step = 0; step < 5000; step++) {
+            if (expected.isEmpty() || random.nextInt(4) == 0) {
+                int height = random.nextInt(500);
+                offsets.append(height);
+                expected.add(height);
+            } else {
+                int j = random.nextInt(expected.size());
+                int height = random.nextInt(500);
+                assertEquals(expected.get(j) != height, offsets.set(j, height));
+                expected.set(j, height);
+            }
+            int count = random.nextInt(expected.size() + 1);
+            int sum = 0;
+            for (int j = 0; j < count; j++) {
+                sum += expected.get(j);
+            }
+            assertEquals(sum, offsets.prefix(count));
+        }
+        int total = 0;
+        for (int height : expected) {
+            total += height;
+        }
+        assertEquals(total, offsets.total());
+    }
+}